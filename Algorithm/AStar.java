@@ -1,32 +1,64 @@
 package Algorithm;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Set;
 
 /**
  * A* Search Algorithm implementation for pathfinding in a grid.
- * This class uses a priority queue to explore nodes based on their estimated cost (f = g + h).
+ * This class uses an indexed min-heap keyed by cell id (y * width + x) to explore nodes
+ * based on their estimated cost (f = g + h).
  */
 public class AStar {
-    private Graph graph;
-    private Node start, goal;
-    private int nodesSearched = 0; // Add this field
+    protected CompiledGraph graph; // Compact form of the grid
+    protected int start, goal; // Start and goal cell indices
+    protected SearchState state; // Flat g/f/parent/closed arrays keyed by cell index
+    protected int width;
+    protected int nodesSearched = 0; // Add this field
+    private int current; // Cell being expanded, read by the relaxer
+    private double currentG; // g value of the cell being expanded
+    private final NeighborVisitor relaxer = this::relax; // Created once, so expansions don't allocate
+    private HeuristicProvider heuristics; // Fetched on first use, so Dijkstra never builds it
+    private OpenList openSet; // Heap or bucket queue of the current search
 
     /**
      * Constructor for AStar algorithm.
+     * Uses the search state owned by the graph, so repeated searches on the same
+     * graph reuse its arrays.
      *
      * @param graph The graph to search in.
      * @param start The starting node.
      * @param goal  The goal node.
      */
     public AStar(Graph graph, Node start, Node goal) {
+        this(graph, start, goal, graph.getSearchState());
+    }
+
+    /**
+     * Constructor for AStar algorithm with an explicit search state.
+     *
+     * @param graph The graph to search in.
+     * @param start The starting node.
+     * @param goal  The goal node.
+     * @param state The search state to use; must hold at least width * height cells.
+     */
+    public AStar(Graph graph, Node start, Node goal, SearchState state) {
+        this(graph.compile(), graph.getIndex(start.x, start.y), graph.getIndex(goal.x, goal.y), state);
+    }
+
+    /**
+     * Constructor for AStar algorithm on an already compiled graph.
+     *
+     * @param graph The compiled graph to search in.
+     * @param start The starting cell index.
+     * @param goal  The goal cell index.
+     * @param state The search state to use; must hold at least width * height cells.
+     */
+    public AStar(CompiledGraph graph, int start, int goal, SearchState state) {
         this.graph = graph;
         this.start = start;
         this.goal = goal;
+        this.state = state;
+        this.width = graph.getWidth();
     }
 
     /**
@@ -35,51 +67,117 @@ public class AStar {
      * @return A list of nodes representing the path from start to goal, or null if no path exists.
      */
     public List<Node> search() {
+        int[] cells = searchCells();
+        if (cells == null) {
+            System.out.println("No path found.");
+            return null;
+        }
+        System.out.println("Path found!");
+        return toNodes(cells);
+    }
+
+    /**
+     * Executes the search without printing and returns the path as cell indices.
+     * This is the form used by benchmarks and batch runs.
+     *
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    public int[] searchCells() {
         nodesSearched = 0; // Reset counter at the start of each search
-        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.f));
-        Set<Node> closedSet = new HashSet<>();
+        if (!mayReachGoal()) {
+            return null;
+        }
+        state.reset();
+        openSet = chooseOpenList();
 
-        start.g = 0;
-        start.h = calculateHeuristic(start, goal);
-        start.f = start.g + start.h;
-        openSet.add(start);
+        double startF = calculateHeuristic(start, goal);
+        if (startF == Double.POSITIVE_INFINITY) {
+            return null; // The heuristic proves the goal unreachable
+        }
+        state.visit(start, 0, startF, -1);
+        openSet.insert(start, startF);
 
         while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
+            current = openSet.poll();
             nodesSearched++; // Increment for each node processed
 
             // Goal reached
-            if (current.equals(goal)) {
-                System.out.println("Path found!");
-                return reconstructPath(current);
+            if (current == goal) {
+                return state.pathTo(current);
             }
 
-            closedSet.add(current);
-
-            for (Node neighbor : graph.getNeighbors(current)) {
-                if (closedSet.contains(neighbor)) {
-                    continue; // Skip already explored nodes
-                }
-
-                double tentativeG = current.g + calculateCost(current, neighbor);
-                if (!openSet.contains(neighbor) || tentativeG < neighbor.g) {
-                    neighbor.parent = current;
-                    neighbor.g = tentativeG;
-                    neighbor.h = calculateHeuristic(neighbor, goal);
-                    neighbor.f = neighbor.g + neighbor.h;
-
-                    if (openSet.contains(neighbor)) {
-                        openSet.remove(neighbor); // Update priority
-                    }
-                    openSet.add(neighbor);
-                }
-            }
+            state.close(current);
+            currentG = state.getG(current);
+            graph.forEachNeighbor(current, relaxer);
         }
 
-        System.out.println("No path found.");
         return null;
     }
 
+    /**
+     * Checks the graph's connectivity index, so a goal in another component is rejected in
+     * O(1) instead of exhausting the reachable region.
+     *
+     * @return False if the goal is provably unreachable from the start, true otherwise.
+     */
+    protected boolean mayReachGoal() {
+        ConnectivityIndex index = graph.connectivity();
+        // An index that has moved on to a newer version of the grid cannot answer for this one
+        return index.getVersion() != graph.getVersion() || index.mayReach(start, goal);
+    }
+
+    /**
+     * Relaxes the edge from the cell being expanded to one of its neighbors.
+     *
+     * @param neighbor The neighbor cell index.
+     * @param edgeCost The cost of the edge to the neighbor.
+     */
+    private void relax(int neighbor, double edgeCost) {
+        if (state.isClosed(neighbor)) {
+            return; // Skip already explored nodes
+        }
+
+        double tentativeG = currentG + calculateCost(current, neighbor, edgeCost);
+        if (tentativeG < state.getG(neighbor)) {
+            double f = tentativeG + calculateHeuristic(neighbor, goal);
+            if (f == Double.POSITIVE_INFINITY) {
+                return; // The goal is unreachable from the neighbor, so it is never worth expanding
+            }
+            state.visit(neighbor, tentativeG, f, current);
+            openSet.insertOrDecrease(neighbor, f); // Update priority in O(log n), or O(1) with buckets
+        }
+    }
+
+    /**
+     * Gets the open list for a search from the search state: a bucket queue when
+     * useBucketQueue() allows it, the binary heap otherwise.
+     *
+     * @return The open list, already cleared by state.reset().
+     */
+    protected OpenList chooseOpenList() {
+        if (useBucketQueue()) {
+            return state.getBucketQueue((int) (2 * graph.getMaxEdgeCost()));
+        }
+        return state.getOpenSet();
+    }
+
+    /**
+     * Checks if every priority of this search is a small integer, so the open list can be a
+     * BucketQueue: edge costs must be small integers and so must the heuristic.
+     * Subclasses whose heuristic or cost returns fractions must override this.
+     *
+     * @return True if a bucket queue can be used, false otherwise.
+     */
+    protected boolean useBucketQueue() {
+        if (!BucketQueue.supports(graph)) {
+            return false;
+        }
+        if (heuristics == null) {
+            heuristics = graph.heuristics();
+        }
+        return heuristics.isIntegral();
+    }
+
     /**
      * Returns the number of nodes searched during the last search.
      *
@@ -90,44 +188,58 @@ public class AStar {
     }
 
     /**
-     * Calculates the heuristic cost between two nodes.
-     * This project uses Manhattan distance, but can be modified for other heuristics.
+     * Calculates the heuristic cost between two cells.
+     * This uses the graph's HeuristicProvider: Manhattan distance on plain grids, toroidal
+     * Manhattan distance with wrap-around, and a teleport-aware bound when teleports exist,
+     * so it never overestimates. It can be modified for other heuristics; an infinite estimate
+     * means the goal is unreachable from the cell, which the search then skips.
      *
-     * @param a The first node.
-     * @param b The second node.
+     * @param a The first cell index.
+     * @param b The second cell index.
      * @return The heuristic cost.
      */
-    protected double calculateHeuristic(Node a, Node b) {
-        return Math.abs(a.x - b.x) + Math.abs(a.y - b.y); // Manhattan distance
+    protected double calculateHeuristic(int a, int b) {
+        if (heuristics == null) {
+            heuristics = graph.heuristics();
+        }
+        return heuristics.estimate(a, b);
     }
 
     /**
-     * Calculates the cost to move from node a to node b.
-     * This can be modified to account for different terrain costs or other factors.
+     * Calculates the cost to move from cell a to cell b.
+     * By default this is the cost of the compiled edge, but it can be modified
+     * to weight or ignore the cost-so-far.
      *
-     * @param a The starting node.
-     * @param b The destination node.
+     * @param a        The starting cell index.
+     * @param b        The destination cell index.
+     * @param edgeCost The cost of the edge from a to b in the graph.
      * @return The cost of moving from a to b.
      */
-    protected double calculateCost(Node a, Node b) {
-        return 1.0; // Assume cost is constant for simplicity (can be modified)
+    protected double calculateCost(int a, int b, double edgeCost) {
+        return edgeCost;
     }
 
     /**
-     * Reconstructs the path from the goal node back to the start node.
+     * Converts a cell index back to a node.
      *
-     * @param current The current node (goal).
-     * @return A list of nodes representing the path from start to goal.
+     * @param cell The cell index.
+     * @return A node with the cell's coordinates.
      */
-    private List<Node> reconstructPath(Node current) {
-        List<Node> path = new ArrayList<>();
+    protected Node toNode(int cell) {
+        return new Node(cell % width, cell / width);
+    }
 
-        // Trace back the parent links to reconstruct the path
-        while (current != null) {
-            path.add(0, current); // Add at the beginning to avoid reversing later
-            current = current.parent;
+    /**
+     * Converts a path of cell indices into nodes.
+     *
+     * @param cells The cell indices from start to goal.
+     * @return A list of nodes representing the path from start to goal.
+     */
+    protected List<Node> toNodes(int[] cells) {
+        List<Node> path = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            path.add(toNode(cell));
         }
-
         return path;
     }
 
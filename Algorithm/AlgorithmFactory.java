@@ -2,34 +2,110 @@ package Algorithm;
 
 /**
  * Factory class to create instances of AStar algorithm with different configurations.
- * This allows for easy switching between A* Search, Greedy Best-First Search, and Dijkstra's Algorithm.
+ * This allows for easy switching between A* Search, Greedy Best-First Search, Dijkstra's Algorithm
+ * their bidirectional variants, Jump Point Search, A* with the ALT landmark heuristic, HPA* and
+ * Contraction Hierarchies. HPA* is the only one whose paths may be longer than optimal, and its
+ * name says so.
  */
 public class AlgorithmFactory {
+    private static final String[] ALGORITHMS = { "A* Search", "Greedy Best-First Search", "Dijkstra's Algorithm",
+            "Bidirectional A*", "Bidirectional Dijkstra", "Jump Point Search", "A* (ALT)", "HPA* (approximate)",
+            "Contraction Hierarchies" };
+
+    /**
+     * Gets the names accepted by createAlgorithm, in display order.
+     *
+     * @return The algorithm names.
+     */
+    public static String[] getAlgorithmNames() {
+        return ALGORITHMS.clone();
+    }
+
+    /**
+     * Creates a search on a graph, using the graph's own search state.
+     *
+     * @param algorithm The algorithm name, see getAlgorithmNames().
+     * @param graph     The graph to search in.
+     * @param start     The starting node.
+     * @param goal      The goal node.
+     * @return The configured search.
+     */
     public static AStar createAlgorithm(String algorithm, Graph graph, Node start, Node goal) {
+        graph.getConnectivity(); // Keep the component labels up to date across edits instead of rebuilding them
+        if (algorithm.equals("HPA* (approximate)")) {
+            graph.getHierarchy(); // Keep the abstraction up to date across edits instead of rebuilding it
+        }
+        return createAlgorithm(algorithm, graph.compile(), graph.getIndex(start.x, start.y),
+                graph.getIndex(goal.x, goal.y), graph.getSearchState());
+    }
+
+    /**
+     * Creates a search on a compiled graph with an explicit search state.
+     * The compiled graph is never modified, so searches with different states can
+     * run concurrently on the same compiled graph.
+     *
+     * @param algorithm The algorithm name, see getAlgorithmNames().
+     * @param graph     The compiled graph to search in.
+     * @param start     The starting cell index.
+     * @param goal      The goal cell index.
+     * @param state     The search state owned by the caller.
+     * @return The configured search.
+     */
+    public static AStar createAlgorithm(String algorithm, CompiledGraph graph, int start, int goal,
+            SearchState state) {
         switch (algorithm) {
             case "A* Search":
-                return new AStar(graph, start, goal); // Default A* behavior
+                return new AStar(graph, start, goal, state); // Default A* behavior
             case "Greedy Best-First Search":
-                return new AStar(graph, start, goal) {
+                return new AStar(graph, start, goal, state) {
                     @Override
-                    protected double calculateHeuristic(Node a, Node b) {
+                    protected double calculateHeuristic(int a, int b) {
                         return super.calculateHeuristic(a, b); // Use only heuristic
                     }
 
                     @Override
-                    protected double calculateCost(Node a, Node b) {
+                    protected double calculateCost(int a, int b, double edgeCost) {
                         return 0; // Ignore cost-so-far
                     }
                 };
             case "Dijkstra's Algorithm":
-                return new AStar(graph, start, goal) {
+                return new AStar(graph, start, goal, state) {
+                    @Override
+                    protected double calculateHeuristic(int a, int b) {
+                        return 0; // Disable heuristic
+                    }
+
+                    @Override
+                    protected boolean useBucketQueue() {
+                        return BucketQueue.supports(graph); // Without a heuristic only the edge costs matter
+                    }
+                };
+            case "Bidirectional A*":
+                return new BidirectionalAStar(graph, start, goal, state);
+            case "Bidirectional Dijkstra":
+                return new BidirectionalAStar(graph, start, goal, state) {
                     @Override
-                    protected double calculateHeuristic(Node a, Node b) {
+                    protected double calculateHeuristic(int a, int b) {
                         return 0; // Disable heuristic
                     }
                 };
+            case "Jump Point Search":
+                return new JumpPointSearch(graph, start, goal, state);
+            case "A* (ALT)":
+                LandmarkTable landmarks = graph.landmarks();
+                return new AStar(graph, start, goal, state) {
+                    @Override
+                    protected double calculateHeuristic(int a, int b) {
+                        // Both bounds are admissible, so their maximum is too
+                        return Math.max(super.calculateHeuristic(a, b), landmarks.estimate(a, b));
+                    }
+                };
+            case "HPA* (approximate)":
+                return new HierarchicalSearch(graph, start, goal, state);
+            case "Contraction Hierarchies":
+                return new ContractionSearch(graph, start, goal, state);
             default:
                 throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
         }
     }
-}
\ No newline at end of file
+}
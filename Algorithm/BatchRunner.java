@@ -0,0 +1,316 @@
+package Algorithm;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless command-line runner for batches of seeded path queries.
+ * Reads one composite seed per line (width-height-blocked-teleport-seed-startX-startY-endX-endY)
+ * from a file or stdin, runs the chosen algorithm on a worker pool, and streams one CSV or
+ * JSONL result per query. Throughput and latency percentiles are printed to stderr at the end.
+ * The last few generated grids are kept by their generation parameters, so queries that only
+ * differ in start and goal share one grid and the structures built on it.
+ *
+ * Usage:
+ * java -cp ASearchVisualizer.jar Algorithm.BatchRunner [--input file] [--output file]
+ * [--algorithm name] [--threads n] [--format csv|jsonl] [--wrap]
+ */
+public class BatchRunner {
+    private static final int CACHED_GRAPHS = 4; // Generated grids kept for reuse
+
+    private String algorithm = "A* Search";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean jsonl = false;
+    private boolean wrapAround = false;
+    private String inputPath; // null reads stdin
+    private String outputPath; // null writes stdout
+    private final Map<String, CachedGrid> grids = new LinkedHashMap<String, CachedGrid>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedGrid> eldest) {
+            return size() > CACHED_GRAPHS;
+        }
+    }; // Recently used grids by generation parameters, in access order; guarded by itself
+    private final ThreadLocal<SearchState> states = new ThreadLocal<>(); // Each worker's search state
+
+    /**
+     * Entry point for the batch runner.
+     *
+     * @param args Command line options, see the class documentation.
+     */
+    public static void main(String[] args) throws Exception {
+        BatchRunner runner = new BatchRunner();
+        try {
+            runner.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: BatchRunner [--input file] [--output file] [--algorithm name]"
+                    + " [--threads n] [--format csv|jsonl] [--wrap]");
+            System.exit(2);
+        }
+        runner.run();
+    }
+
+    /**
+     * Parses the command line options.
+     *
+     * @param args Command line options.
+     */
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--wrap":
+                    wrapAround = true;
+                    break;
+                case "--input":
+                    inputPath = requireValue(args, ++i, option);
+                    break;
+                case "--output":
+                    outputPath = requireValue(args, ++i, option);
+                    break;
+                case "--algorithm":
+                    algorithm = requireValue(args, ++i, option);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(requireValue(args, ++i, option));
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("--threads must be at least 1");
+                    }
+                    break;
+                case "--format":
+                    String format = requireValue(args, ++i, option);
+                    if (!format.equals("csv") && !format.equals("jsonl")) {
+                        throw new IllegalArgumentException("Unknown format: " + format);
+                    }
+                    jsonl = format.equals("jsonl");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (!Arrays.asList(AlgorithmFactory.getAlgorithmNames()).contains(algorithm)) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algorithm + ", expected one of "
+                    + Arrays.toString(AlgorithmFactory.getAlgorithmNames()));
+        }
+    }
+
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Runs every query from the input and writes the results.
+     */
+    private void run() throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(threads * 4); // Keeps huge inputs from queueing in memory
+        LatencyRecorder latencies = new LatencyRecorder();
+        InputStream in = inputPath == null ? System.in : new FileInputStream(inputPath);
+        OutputStream out = outputPath == null ? System.out : new FileOutputStream(outputPath);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            if (!jsonl) {
+                writer.println("line,seed,algorithm,found,time_ms,nodes_searched,path_length");
+            }
+
+            long wallStart = System.nanoTime();
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String text = line.trim();
+                if (text.isEmpty() || text.startsWith("#")) {
+                    continue;
+                }
+                int queryLine = lineNumber;
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        String result = runQuery(queryLine, text, latencies);
+                        synchronized (writer) {
+                            writer.println(result);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            long wallTime = System.nanoTime() - wallStart;
+
+            writer.flush();
+            latencies.printSummary(wallTime);
+        } finally {
+            pool.shutdownNow(); // Only has work left if reading the input failed
+        }
+    }
+
+    /**
+     * Runs a single query and formats its result.
+     *
+     * @param lineNumber The input line number of the query.
+     * @param text       The composite seed.
+     * @param latencies  The recorder for search times.
+     * @return The formatted result line.
+     */
+    private String runQuery(int lineNumber, String text, LatencyRecorder latencies) {
+        CompositeSeed seed;
+        CompiledGraph graph;
+        try {
+            seed = CompositeSeed.parse(text);
+            graph = graphFor(seed);
+        } catch (RuntimeException e) { // Malformed seed or impossible grid size
+            latencies.recordError();
+            return format(lineNumber, text, "error", 0, 0, 0);
+        }
+        SearchState state = states.get();
+        if (state == null || state.getCellCount() != graph.getCellCount()) {
+            state = new SearchState(graph.getCellCount());
+            states.set(state);
+        }
+        AStar search;
+        int[] path;
+        long elapsed;
+        try {
+            search = AlgorithmFactory.createAlgorithm(algorithm, graph, graph.getIndex(seed.startX, seed.startY),
+                    graph.getIndex(seed.endX, seed.endY), state);
+            long start = System.nanoTime();
+            path = search.searchCells();
+            elapsed = System.nanoTime() - start;
+        } catch (RuntimeException e) { // A failed search still gets its row, so output lines match input lines
+            latencies.recordError();
+            return format(lineNumber, text, "error", 0, 0, 0);
+        }
+        latencies.record(elapsed);
+
+        return format(lineNumber, text, path != null ? "true" : "false", elapsed / 1_000_000.0,
+                search.getNodesSearched(), path != null ? path.length : 0);
+    }
+
+    /**
+     * Gets the compiled grid of a seed, generating it unless a recent query used the same
+     * generation parameters. Only workers that need the same grid wait for its generation.
+     *
+     * @param seed The composite seed.
+     * @return The compiled grid, shared by queries on the same grid.
+     */
+    private CompiledGraph graphFor(CompositeSeed seed) {
+        String key = seed.width + "-" + seed.height + "-" + seed.blockedPercent + "-" + seed.teleportPercent + "-"
+                + seed.seed + "-" + seed.generatorVersion;
+        CachedGrid grid;
+        synchronized (grids) {
+            grid = grids.get(key);
+            if (grid == null) {
+                grid = new CachedGrid(seed);
+                grids.put(key, grid);
+            }
+        }
+        return grid.get();
+    }
+
+    /**
+     * A grid of the cache, generated by the first worker that asks for it.
+     */
+    private final class CachedGrid {
+        private final CompositeSeed seed; // Generation parameters; its start and goal are ignored
+        private CompiledGraph graph; // Null until generated
+
+        CachedGrid(CompositeSeed seed) {
+            this.seed = seed;
+        }
+
+        synchronized CompiledGraph get() {
+            if (graph == null) {
+                Graph generated = seed.createGraph();
+                generated.setWrapAroundEnabled(wrapAround);
+                graph = generated.compile();
+            }
+            return graph;
+        }
+    }
+
+    private String format(int lineNumber, String seed, String found, double timeMs, int nodesSearched,
+            int pathLength) {
+        String time = String.format(Locale.ROOT, "%.3f", timeMs); // A decimal comma would break CSV and JSON
+        if (jsonl) {
+            return "{\"line\":" + lineNumber + ",\"seed\":\"" + escapeJson(seed) + "\",\"algorithm\":\""
+                    + escapeJson(algorithm) + "\",\"found\":" + (found.equals("error") ? "null" : found)
+                    + ",\"time_ms\":" + time + ",\"nodes_searched\":" + nodesSearched
+                    + ",\"path_length\":" + pathLength + "}";
+        }
+        return lineNumber + "," + quoteCsv(seed) + "," + quoteCsv(algorithm) + "," + found + "," + time + ","
+                + nodesSearched + "," + pathLength;
+    }
+
+    /**
+     * Quotes a CSV field, doubling embedded quotes, so commas in it do not split the row.
+     */
+    private static String quoteCsv(String text) {
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String escapeJson(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Thread-safe collector of per-query search times.
+     */
+    private static final class LatencyRecorder {
+        private long[] samples = new long[1024];
+        private int count = 0;
+        private int errors = 0;
+
+        synchronized void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        synchronized void recordError() {
+            errors++;
+        }
+
+        synchronized void printSummary(long wallNanos) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            double wallSeconds = wallNanos / 1e9;
+            System.err.printf(Locale.ROOT, "Queries: %d (%d failed), wall time: %.3f s, throughput: %.1f queries/s%n",
+                    count, errors, wallSeconds, wallSeconds > 0 ? count / wallSeconds : 0.0);
+            if (count > 0) {
+                System.err.printf(Locale.ROOT, "Search latency ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f%n",
+                        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                        sorted[count - 1] / 1e6);
+            }
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package Algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional A* search: a forward search from the start and a backward search from the
+ * goal over the reverse graph, alternating until they provably cannot improve on the best
+ * meeting point found so far.
+ * Both directions use the average potential p(v) = (h(v, goal) - h(start, v)) / 2, which keeps
+ * the two searches consistent with each other, so the search stops as soon as
+ * topForward + topBackward >= best path cost. With a zero heuristic this is bidirectional Dijkstra.
+ */
+public class BidirectionalAStar extends AStar {
+    private CompiledGraph reverse; // Predecessor adjacency for the backward search
+    private SearchState backward; // Backward g/parent/closed arrays; parent points toward the goal
+    private double bestCost; // Cost of the best start-goal path found so far (mu)
+    private int meeting; // Cell where the best path joins the two searches
+    private int current; // Cell being expanded, read by the relaxers
+    private double currentG; // g value of the cell being expanded in its own direction
+    private final NeighborVisitor forwardRelaxer = this::relaxForward;
+    private final NeighborVisitor backwardRelaxer = this::relaxBackward;
+
+    /**
+     * Constructor for BidirectionalAStar.
+     *
+     * @param graph The compiled graph to search in.
+     * @param start The starting cell index.
+     * @param goal  The goal cell index.
+     * @param state The forward search state; its backward partner state is used for the
+     *              backward search.
+     */
+    public BidirectionalAStar(CompiledGraph graph, int start, int goal, SearchState state) {
+        super(graph, start, goal, state);
+        this.reverse = graph.reversed();
+        this.backward = state.getBackwardState();
+    }
+
+    /**
+     * Executes the bidirectional search.
+     *
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    @Override
+    public int[] searchCells() {
+        nodesSearched = 0;
+        state.reset();
+        backward.reset();
+        IndexedMinHeap forwardOpen = state.getOpenSet();
+        IndexedMinHeap backwardOpen = backward.getOpenSet();
+        bestCost = Double.POSITIVE_INFINITY;
+        meeting = -1;
+
+        if (start == goal) {
+            return new int[] { start };
+        }
+        if (!mayReachGoal()) {
+            return null;
+        }
+
+        state.visit(start, 0, potential(start), -1);
+        forwardOpen.insert(start, potential(start));
+        backward.visit(goal, 0, -potential(goal), -1);
+        backwardOpen.insert(goal, -potential(goal));
+
+        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()) {
+            // Stopping criterion: no unsettled path can be shorter than the best one found
+            if (forwardOpen.peekKey() + backwardOpen.peekKey() >= bestCost) {
+                break;
+            }
+
+            // Expand the side with the smaller frontier
+            if (forwardOpen.size() <= backwardOpen.size()) {
+                current = forwardOpen.poll();
+                nodesSearched++;
+                state.close(current);
+                currentG = state.getG(current);
+                graph.forEachNeighbor(current, forwardRelaxer);
+            } else {
+                current = backwardOpen.poll();
+                nodesSearched++;
+                backward.close(current);
+                currentG = backward.getG(current);
+                reverse.forEachNeighbor(current, backwardRelaxer);
+            }
+        }
+
+        return meeting < 0 ? null : joinPaths();
+    }
+
+    /**
+     * Relaxes a forward edge from the cell being expanded.
+     *
+     * @param neighbor The successor cell index.
+     * @param edgeCost The cost of the edge.
+     */
+    private void relaxForward(int neighbor, double edgeCost) {
+        if (state.isClosed(neighbor)) {
+            return;
+        }
+        double tentativeG = currentG + calculateCost(current, neighbor, edgeCost);
+        if (tentativeG < state.getG(neighbor)) {
+            double key = tentativeG + potential(neighbor);
+            state.visit(neighbor, tentativeG, key, current);
+            state.getOpenSet().insertOrDecrease(neighbor, key);
+            updateMeeting(neighbor);
+        }
+    }
+
+    /**
+     * Relaxes a reverse edge into the cell being expanded.
+     *
+     * @param neighbor The predecessor cell index.
+     * @param edgeCost The cost of the edge from the predecessor.
+     */
+    private void relaxBackward(int neighbor, double edgeCost) {
+        if (backward.isClosed(neighbor)) {
+            return;
+        }
+        double tentativeG = currentG + calculateCost(neighbor, current, edgeCost);
+        if (tentativeG < backward.getG(neighbor)) {
+            double key = tentativeG - potential(neighbor);
+            backward.visit(neighbor, tentativeG, key, current);
+            backward.getOpenSet().insertOrDecrease(neighbor, key);
+            updateMeeting(neighbor);
+        }
+    }
+
+    /**
+     * Records a cell as the meeting point if both searches reached it and the joined
+     * path is the shortest so far.
+     *
+     * @param cell The cell whose g value just improved.
+     */
+    private void updateMeeting(int cell) {
+        double total = state.getG(cell) + backward.getG(cell);
+        if (total < bestCost) {
+            bestCost = total;
+            meeting = cell;
+        }
+    }
+
+    /**
+     * Gets the forward potential of a cell; the backward search uses its negation.
+     *
+     * @param cell The cell index.
+     * @return The average of the forward and backward heuristic estimates.
+     */
+    private double potential(int cell) {
+        return (calculateHeuristic(cell, goal) - calculateHeuristic(start, cell)) / 2;
+    }
+
+    /**
+     * Joins the forward path to the meeting cell with the backward path from it.
+     *
+     * @return The cell indices from start to goal.
+     */
+    private int[] joinPaths() {
+        int[] head = state.pathTo(meeting);
+        int length = head.length;
+        for (int c = backward.getParent(meeting); c != -1; c = backward.getParent(c)) {
+            length++;
+        }
+        int[] path = Arrays.copyOf(head, length);
+        int i = head.length;
+        for (int c = backward.getParent(meeting); c != -1; c = backward.getParent(c)) {
+            path[i++] = c;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,230 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Bucketed open list for integer priorities (Dial's algorithm).
+ * Ids are kept in a circular array of buckets, one per priority value, each an intrusive doubly
+ * linked list, so insert, decrease-key and removal are O(1). poll() scans forward from the
+ * smallest priority to the next non-empty bucket; when priorities never drop below the last one
+ * removed, as in Dijkstra and in A* with a consistent heuristic, that scan is O(1) amortized.
+ *
+ * The bucket array covers the spread between the smallest and largest priority in the queue,
+ * which stays below twice the largest edge cost for those searches, and grows if needed.
+ * Priorities must be whole numbers; fractional ones are rejected.
+ */
+public class BucketQueue implements OpenList {
+    /** Largest edge cost for which searches use a bucket queue instead of a heap. */
+    public static final double MAX_EDGE_COST = 256;
+    private static final int ABSENT = -2; // prev[] value of ids that are not queued
+
+    private final int[] next; // Next id in the same bucket, or -1
+    private final int[] prev; // Previous id in the same bucket, -1 for the head, or ABSENT
+    private final long[] keys; // Current priority of each queued id
+    private int[] heads; // First id of each bucket, or -1; indexed by priority & mask
+    private int mask;
+    private long low; // No queued priority is smaller; the scan for the minimum starts here
+    private long high; // No queued priority is larger
+    private int size = 0;
+
+    /**
+     * Constructor for BucketQueue.
+     *
+     * @param capacity The number of distinct ids (ids must be in [0, capacity)).
+     * @param spread   The expected difference between the largest and smallest queued priority.
+     */
+    public BucketQueue(int capacity, int spread) {
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(prev, ABSENT);
+        this.heads = new int[bucketCountFor(spread)];
+        Arrays.fill(heads, -1);
+        this.mask = heads.length - 1;
+    }
+
+    /**
+     * Checks if searches on a graph can use a bucket queue: every edge cost is a whole number
+     * no larger than MAX_EDGE_COST. The heuristic must give whole numbers too.
+     *
+     * @param graph The compiled graph.
+     * @return True if the edge costs are small integers, false otherwise.
+     */
+    public static boolean supports(CompiledGraph graph) {
+        return graph.hasIntegerCosts() && graph.getMaxEdgeCost() <= MAX_EDGE_COST;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return prev[id] != ABSENT;
+    }
+
+    @Override
+    public double keyOf(int id) {
+        return keys[id];
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("Id already in queue: " + id);
+        }
+        long value = toBucketKey(key);
+        if (size == 0) {
+            low = value;
+            high = value;
+        } else {
+            include(value);
+        }
+        keys[id] = value;
+        link(id);
+        size++;
+    }
+
+    @Override
+    public void insertOrDecrease(int id, double key) {
+        if (!contains(id)) {
+            insert(id, key);
+        } else if (key < keys[id]) {
+            long value = toBucketKey(key);
+            unlink(id);
+            include(value);
+            keys[id] = value;
+            link(id);
+        }
+    }
+
+    @Override
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        while (heads[(int) low & mask] < 0) {
+            low++;
+        }
+        return heads[(int) low & mask];
+    }
+
+    @Override
+    public double peekKey() {
+        return keys[peek()];
+    }
+
+    @Override
+    public int poll() {
+        int top = peek();
+        unlink(top);
+        prev[top] = ABSENT;
+        size--;
+        return top;
+    }
+
+    /**
+     * Removes all ids from the queue.
+     * Only the buckets between the smallest and largest priority are touched.
+     */
+    @Override
+    public void clear() {
+        for (long key = low; size > 0 && key <= high; key++) {
+            int bucket = (int) key & mask;
+            for (int id = heads[bucket]; id >= 0; id = next[id]) {
+                prev[id] = ABSENT;
+                size--;
+            }
+            heads[bucket] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Gets the number of buckets currently allocated.
+     *
+     * @return The number of buckets, a power of two.
+     */
+    public int getBucketCount() {
+        return heads.length;
+    }
+
+    private static long toBucketKey(double key) {
+        long value = (long) key;
+        if (value != key) {
+            throw new IllegalArgumentException("Bucket queue priorities must be whole numbers: " + key);
+        }
+        return value;
+    }
+
+    private static int bucketCountFor(long spread) {
+        if (spread >= 1 << 30) {
+            throw new IllegalArgumentException("Priority spread too large for a bucket queue: " + spread);
+        }
+        return Integer.highestOneBit((int) Math.max(1, spread) * 2);
+    }
+
+    /**
+     * Widens the [low, high] range to a priority, growing the bucket array if the range no
+     * longer fits.
+     */
+    private void include(long value) {
+        long newLow = Math.min(low, value);
+        long newHigh = Math.max(high, value);
+        if (newHigh - newLow > mask) {
+            grow(newHigh - newLow);
+        }
+        low = newLow;
+        high = newHigh;
+    }
+
+    /**
+     * Reallocates the buckets for a larger spread and relinks every queued id.
+     */
+    private void grow(long spread) {
+        int[] oldHeads = heads;
+        heads = new int[bucketCountFor(spread)];
+        Arrays.fill(heads, -1);
+        mask = heads.length - 1;
+        for (int head : oldHeads) {
+            for (int id = head, following; id >= 0; id = following) {
+                following = next[id];
+                link(id);
+            }
+        }
+    }
+
+    /**
+     * Pushes an id onto the front of its bucket, so ties are removed last-in first-out.
+     */
+    private void link(int id) {
+        int bucket = (int) keys[id] & mask;
+        int head = heads[bucket];
+        next[id] = head;
+        prev[id] = -1;
+        if (head >= 0) {
+            prev[head] = id;
+        }
+        heads[bucket] = id;
+    }
+
+    private void unlink(int id) {
+        int before = prev[id];
+        int after = next[id];
+        if (before < 0) {
+            heads[(int) keys[id] & mask] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after >= 0) {
+            prev[after] = before;
+        }
+    }
+}
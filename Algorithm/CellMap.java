@@ -0,0 +1,176 @@
+package Algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Sparse map from cell index to a non-negative int, with open addressing and linear probing.
+ * Teleportation links and other data that only a few cells have are kept in one of these
+ * instead of an array with an entry for every cell, so they cost memory per entry, not per cell.
+ * Entries are enumerated by slot: slots 0 .. capacity() - 1, skipping those where keyAt() is -1.
+ */
+final class CellMap {
+    private int[] keys; // Cell + 1 in each slot, 0 if empty
+    private int[] values; // Value in the same slot
+    private int size;
+
+    /**
+     * Constructor for CellMap.
+     *
+     * @param expected The number of entries to make room for.
+     */
+    CellMap(int expected) {
+        int capacity = 4;
+        while (capacity < 2 * expected) { // Load factor at most 1/2
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * Gets the value of a cell.
+     *
+     * @param cell The cell index.
+     * @return The value, or -1 if the cell has no entry.
+     */
+    int get(int cell) {
+        if (size == 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slotOf(cell, mask);; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == cell + 1) {
+                return values[slot];
+            }
+            if (key == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Checks if a cell has an entry.
+     *
+     * @param cell The cell index.
+     * @return True if the cell has an entry, false otherwise.
+     */
+    boolean containsKey(int cell) {
+        return get(cell) >= 0;
+    }
+
+    /**
+     * Sets the value of a cell, replacing any previous one.
+     *
+     * @param cell  The cell index.
+     * @param value The value; must be non-negative.
+     */
+    void put(int cell, int value) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(cell, mask);
+        while (keys[slot] != 0 && keys[slot] != cell + 1) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = cell + 1;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            size = 0;
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The number of cells with an entry.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of slots, for enumerating the entries.
+     *
+     * @return The number of slots.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the cell in a slot.
+     *
+     * @param slot The slot, between 0 and capacity() - 1.
+     * @return The cell index, or -1 if the slot is empty.
+     */
+    int keyAt(int slot) {
+        return keys[slot] - 1;
+    }
+
+    /**
+     * Gets the value in a slot.
+     *
+     * @param slot The slot of an entry.
+     * @return The value.
+     */
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Copies the map, for snapshots that must not see later changes.
+     *
+     * @return An independent map with the same entries.
+     */
+    CellMap copy() {
+        CellMap copy = new CellMap(0);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Gets the approximate memory used by the map.
+     *
+     * @return The size in bytes.
+     */
+    long getMemoryFootprint() {
+        return 8L * keys.length;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[2 * oldKeys.length];
+        values = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i] - 1, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slotOf(int cell, int mask) {
+        int h = cell * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
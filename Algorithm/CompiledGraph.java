@@ -0,0 +1,746 @@
+package Algorithm;
+
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable, compact form of a Graph used by the search algorithms.
+ * Grid edges are not stored: the four steps of a cell are derived from the blocked-cell bitset
+ * (one bit per cell index, y * width + x) and the wrap-around flag, and a step costs the cost of
+ * the cell it enters, plus the wrap-around penalty if it wraps. The bitset and the cost layer
+ * (only present when some cell does not cost 1) are read through buffers: over the Graph's own
+ * arrays, shared until the Graph next changes them, or over the mapping of a MapFile, so
+ * compiling copies nothing per cell. Teleportation links, the only irregular edges, are kept in
+ * sparse tables with an entry per link.
+ * On a 1000 x 1000 grid with 1% teleporters getMemoryFootprint() reports 0.91 bytes per cell
+ * (0.125 for the bitset, the rest for the link tables), or 4.91 with a cost layer; with explicit
+ * edge lists it was 20.3 and 36.3 bytes per cell.
+ * Neighbors come in the order up, right, down, left, then the teleportation destination, like
+ * Graph.forEachNeighbor(); read them with forEachNeighbor() or neighbors().
+ */
+public class CompiledGraph {
+    private static final int[] STEP_X = { 0, 1, 0, -1 }; // Up, right, down, left
+    private static final int[] STEP_Y = { 1, 0, -1, 0 };
+
+    private final int width, height;
+    private final boolean wrapAround;
+    private final boolean reverse; // True for the transposed graph, whose edges point backwards
+    private final LongBuffer blocked; // Bit c is set if cell c is blocked; the Graph's array or the map file, never written here
+    private final FloatBuffer[] costs; // Cost of entering each cell, MapFile.COST_CHUNK cells per buffer, or null when every step costs 1 before penalties
+    private final float wrapPenalty; // Added to steps that wrap around an edge
+    private final CellMap teleports; // Destination of each usable link (both ends free), by source cell
+    private final TeleportSources incoming; // Usable links by destination, only in the transposed graph
+    private final CellMap teleportEndpoints; // Every cell that is the source or destination of a link
+    private final int maxDegree; // Upper bound on the neighbors of a cell
+    private final double minStepCost; // Lower bound on every grid step, see Graph.getMinCellCost()
+    private final double teleportCost; // Cost of every teleportation edge
+    private final long version; // Graph.getVersion() of the graph this was compiled from
+    private volatile CompiledGraph reversed; // Transposed graph, built on first use
+    private volatile HeuristicProvider heuristics; // Topology-aware heuristic, built on first use
+    private volatile LandmarkTable landmarks; // ALT landmark distances, built on first use
+    private volatile HierarchicalGraph hierarchy; // HPA* cluster abstraction, built on first use
+    private volatile ConnectivityIndex connectivity; // Component labels, built on first use
+    private volatile ContractionHierarchy contraction; // Contraction hierarchy, built on first use
+    private volatile long fingerprint; // Hash of the structure, computed on first use (0 = not yet)
+    private volatile EdgeCounter statistics; // Edge count and cost statistics, counted on first use
+
+    private CompiledGraph(int width, int height, boolean wrapAround, boolean reverse, LongBuffer blocked,
+            FloatBuffer[] costs, float wrapPenalty, CellMap teleports, TeleportSources incoming,
+            CellMap teleportEndpoints, double minStepCost, double teleportCost, long version) {
+        this.width = width;
+        this.height = height;
+        this.wrapAround = wrapAround;
+        this.reverse = reverse;
+        this.blocked = blocked;
+        this.costs = costs;
+        this.wrapPenalty = wrapPenalty;
+        this.teleports = teleports;
+        this.incoming = incoming;
+        this.teleportEndpoints = teleportEndpoints;
+        this.minStepCost = minStepCost;
+        this.teleportCost = teleportCost;
+        this.version = version;
+        if (reverse) {
+            this.maxDegree = 4 + incoming.getMaxSources();
+        } else {
+            this.maxDegree = teleports.size() > 0 ? 5 : 4;
+        }
+    }
+
+    /**
+     * Compiles a graph into its compact form.
+     * The blocked-cell bitset and cost layer are shared with the graph, which copies them before
+     * its next change, so the result never changes.
+     *
+     * @param graph The graph to compile.
+     * @return The compiled graph.
+     */
+    public static CompiledGraph compile(Graph graph) {
+        LongBuffer blocked = LongBuffer.wrap(graph.shareBlocked());
+        float[] cellCosts = graph.shareCellCosts();
+        FloatBuffer[] costs = null;
+        if (cellCosts != null) {
+            costs = new FloatBuffer[(cellCosts.length + MapFile.COST_CHUNK - 1) / MapFile.COST_CHUNK];
+            for (int i = 0; i < costs.length; i++) {
+                int first = i * MapFile.COST_CHUNK;
+                costs[i] = FloatBuffer.wrap(cellCosts, first, Math.min(MapFile.COST_CHUNK, cellCosts.length - first))
+                        .slice();
+            }
+        }
+        CellMap links = graph.getTeleports();
+        CellMap teleports = new CellMap(links.size());
+        CellMap teleportEndpoints = new CellMap(2 * links.size());
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.keyAt(slot) >= 0) {
+                addLink(links.keyAt(slot), links.valueAt(slot), blocked, teleports, teleportEndpoints);
+            }
+        }
+        return new CompiledGraph(graph.getWidth(), graph.getHeight(), graph.isWrapAroundEnabled(), false, blocked,
+                costs, (float) graph.getWrapAroundPenalty(), teleports, null, teleportEndpoints,
+                graph.getMinCellCost(), graph.getTeleportCost(), graph.getVersion());
+    }
+
+    /**
+     * Compiles a map file without loading it into a Graph. The blocked cells and costs are read
+     * straight from the file's mapping; only the teleportation links are copied into tables.
+     * Use MapFile.compile(), which keeps the result.
+     *
+     * @param map The map file.
+     * @return The compiled graph.
+     */
+    static CompiledGraph compile(MapFile map) {
+        LongBuffer blocked = map.blockedLayer();
+        FloatBuffer[] costs = map.costLayer();
+        double minCost = 1;
+        if (costs != null) {
+            float min = Float.POSITIVE_INFINITY;
+            for (FloatBuffer chunk : costs) {
+                for (int i = 0, end = chunk.limit(); i < end; i++) {
+                    min = Math.min(min, chunk.get(i));
+                }
+            }
+            minCost = min;
+        }
+        int linkCount = map.getTeleportCount();
+        CellMap teleports = new CellMap(linkCount);
+        CellMap teleportEndpoints = new CellMap(2 * linkCount);
+        for (int link = 0; link < linkCount; link++) {
+            addLink(map.getTeleportSource(link), map.getTeleportDestination(link), blocked, teleports,
+                    teleportEndpoints);
+        }
+        return new CompiledGraph(map.getWidth(), map.getHeight(), map.isWrapAroundEnabled(), false, blocked, costs,
+                (float) map.getWrapAroundPenalty(), teleports, null, teleportEndpoints, minCost,
+                map.getTeleportCost(), Graph.nextVersion());
+    }
+
+    /**
+     * Records a teleportation link. Endpoints are marked even while one end is blocked, so a
+     * cell's endpoint flag never depends on another cell being blocked; the link itself is only
+     * usable if both ends are free.
+     */
+    private static void addLink(int cell, int target, LongBuffer blocked, CellMap teleports,
+            CellMap teleportEndpoints) {
+        teleportEndpoints.put(cell, 0);
+        teleportEndpoints.put(target, 0);
+        if (!isSet(blocked, cell) && !isSet(blocked, target)) {
+            teleports.put(cell, target);
+        }
+    }
+
+    /**
+     * Gets the reverse (transposed) graph, where every edge u -> v becomes v -> u with the
+     * same cost. Backward searches enumerate predecessors through it; this matters for
+     * one-way teleportation links, while grid and wrap-around moves are symmetric anyway.
+     * It is built once on first use and is safe to call from several threads.
+     *
+     * @return The reverse graph.
+     */
+    public CompiledGraph reversed() {
+        CompiledGraph result = reversed;
+        if (result == null) {
+            synchronized (this) {
+                result = reversed;
+                if (result == null) {
+                    result = transpose();
+                    result.reversed = this;
+                    reversed = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the admissible heuristic for this graph's topology (wrap-around, teleportation).
+     * It is built once on first use and is safe to call from several threads.
+     *
+     * @return The heuristic provider.
+     */
+    public HeuristicProvider heuristics() {
+        HeuristicProvider result = heuristics;
+        if (result == null) {
+            synchronized (this) {
+                result = heuristics;
+                if (result == null) {
+                    result = new HeuristicProvider(this);
+                    heuristics = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the landmark table for the ALT heuristic, with LandmarkTable.DEFAULT_LANDMARKS
+     * landmarks. It is built once on first use and is safe to call from several threads.
+     *
+     * @return The landmark table.
+     */
+    public LandmarkTable landmarks() {
+        LandmarkTable result = landmarks;
+        if (result == null) {
+            synchronized (this) {
+                result = landmarks;
+                if (result == null) {
+                    result = LandmarkTable.build(this, LandmarkTable.DEFAULT_LANDMARKS);
+                    landmarks = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the cluster abstraction for HPA*, with HierarchicalGraph.DEFAULT_CLUSTER_SIZE clusters.
+     * It is built once on first use and is safe to call from several threads. A Graph that keeps
+     * its abstraction up to date hands it over instead, see Graph.getHierarchy().
+     *
+     * @return The hierarchical abstraction.
+     */
+    public HierarchicalGraph hierarchy() {
+        HierarchicalGraph result = hierarchy;
+        if (result == null) {
+            synchronized (this) {
+                result = hierarchy;
+                if (result == null) {
+                    result = new HierarchicalGraph(this, HierarchicalGraph.DEFAULT_CLUSTER_SIZE);
+                    hierarchy = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Uses an abstraction that was updated for this graph instead of building a new one.
+     *
+     * @param abstraction The hierarchical abstraction, already updated to this graph.
+     */
+    synchronized void adoptHierarchy(HierarchicalGraph abstraction) {
+        hierarchy = abstraction;
+    }
+
+    /**
+     * Gets the connected-component index used to reject unreachable goals before searching.
+     * It is built once on first use and is safe to call from several threads. A Graph that keeps
+     * its index up to date hands it over instead, see Graph.getConnectivity().
+     *
+     * @return The connectivity index.
+     */
+    public ConnectivityIndex connectivity() {
+        ConnectivityIndex result = connectivity;
+        if (result == null) {
+            synchronized (this) {
+                result = connectivity;
+                if (result == null) {
+                    result = new ConnectivityIndex(this);
+                    connectivity = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Uses the index kept up to date by the graph this was compiled from.
+     *
+     * @param index The connectivity index of the graph.
+     */
+    synchronized void adoptConnectivity(ConnectivityIndex index) {
+        connectivity = index;
+    }
+
+    /**
+     * Gets the contraction hierarchy for ContractionSearch. It is built once on first use, which
+     * takes far longer than a single search, and is safe to call from several threads.
+     *
+     * @return The contraction hierarchy.
+     */
+    public ContractionHierarchy contractionHierarchy() {
+        ContractionHierarchy result = contraction;
+        if (result == null) {
+            synchronized (this) {
+                result = contraction;
+                if (result == null) {
+                    result = ContractionHierarchy.build(this);
+                    contraction = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Uses a precomputed landmark table (for example one loaded from disk) instead of
+     * building one on first use.
+     *
+     * @param table The landmark table, which must have been built for this graph.
+     * @throws IllegalArgumentException If the table was built for a different graph.
+     */
+    public synchronized void setLandmarks(LandmarkTable table) {
+        if (!table.matches(this)) {
+            throw new IllegalArgumentException("Landmark table was built for a different graph");
+        }
+        landmarks = table;
+    }
+
+    /**
+     * Gets a 64-bit hash of the grid size, wrap-around flag, blocked cells, costs and links.
+     * Precomputed data saved to disk stores it to detect that the map has changed.
+     *
+     * @return The fingerprint.
+     */
+    public long getFingerprint() {
+        long result = fingerprint;
+        if (result == 0) {
+            long hash = 0xcbf29ce484222325L; // FNV-1a offset basis
+            hash = mix(hash, width);
+            hash = mix(hash, height);
+            hash = mix(hash, (wrapAround ? 1 : 0) | (reverse ? 2 : 0));
+            for (int i = 0, end = blocked.limit(); i < end; i++) {
+                long word = blocked.get(i);
+                hash = mix(hash, (int) word);
+                hash = mix(hash, (int) (word >>> 32));
+            }
+            if (costs != null) {
+                for (FloatBuffer chunk : costs) {
+                    for (int i = 0, end = chunk.limit(); i < end; i++) {
+                        hash = mix(hash, Float.floatToIntBits(chunk.get(i)));
+                    }
+                }
+            }
+            hash = mix(hash, Float.floatToIntBits(wrapPenalty));
+            hash = mix(hash, Float.floatToIntBits((float) teleportCost));
+            // Links in cell order, so the hash does not depend on the table layout
+            int[] sources = new int[teleports.size()];
+            int count = 0;
+            for (int slot = 0; slot < teleports.capacity(); slot++) {
+                if (teleports.keyAt(slot) >= 0) {
+                    sources[count++] = teleports.keyAt(slot);
+                }
+            }
+            Arrays.sort(sources);
+            for (int source : sources) {
+                hash = mix(hash, source);
+                hash = mix(hash, teleports.get(source));
+            }
+            result = hash == 0 ? 1 : hash;
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * 0x100000001b3L; // FNV-1a prime
+    }
+
+    /**
+     * Builds the transposed graph: grid steps are symmetric, so only the teleportation links
+     * need indexing by destination, and a step costs the cell it leaves instead.
+     *
+     * @return The reverse graph.
+     */
+    private CompiledGraph transpose() {
+        return new CompiledGraph(width, height, wrapAround, !reverse, blocked, costs, wrapPenalty, teleports,
+                TeleportSources.build(teleports), teleportEndpoints, minStepCost, teleportCost, version);
+    }
+
+    /**
+     * Gets the edge statistics, counting them in one pass over the implicit edges on first use,
+     * so compiling stays cheap on maps that are only searched a little.
+     */
+    private EdgeCounter statistics() {
+        EdgeCounter result = statistics;
+        if (result == null) {
+            synchronized (this) {
+                result = statistics;
+                if (result == null) {
+                    result = new EdgeCounter();
+                    for (int cell = 0, cellCount = getCellCount(); cell < cellCount; cell++) {
+                        forEachNeighbor(cell, result);
+                    }
+                    statistics = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visitor that counts edges and tracks their costs.
+     */
+    private static final class EdgeCounter implements NeighborVisitor {
+        int edges = 0;
+        boolean uniform = true;
+        boolean integral = true;
+        double maxCost = 0;
+
+        @Override
+        public void visit(int neighbor, double cost) {
+            if (cost != 1.0) {
+                uniform = false;
+                integral &= cost == Math.rint(cost);
+            }
+            maxCost = Math.max(maxCost, cost);
+            edges++;
+        }
+    }
+
+    private static boolean isSet(LongBuffer bits, int index) {
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets the width of the grid.
+     *
+     * @return The width of the grid.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the grid.
+     *
+     * @return The height of the grid.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of cells (width * height), including blocked ones.
+     *
+     * @return The number of cells.
+     */
+    public int getCellCount() {
+        return width * height;
+    }
+
+    /**
+     * Checks if wrap-around edges were enabled when this graph was compiled.
+     *
+     * @return True if wrap-around is enabled, false otherwise.
+     */
+    public boolean isWrapAroundEnabled() {
+        return wrapAround;
+    }
+
+    /**
+     * Gets the cell index of the specified coordinates.
+     *
+     * @param x X-coordinate of the cell.
+     * @param y Y-coordinate of the cell.
+     * @return The cell index (y * width + x).
+     */
+    public int getIndex(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Checks if a cell is not blocked.
+     *
+     * @param cell The cell index.
+     * @return True if the cell is passable, false otherwise.
+     */
+    public boolean isPassable(int cell) {
+        return !isSet(blocked, cell);
+    }
+
+    /**
+     * Checks if a cell is the source or destination of a teleportation link, even one that
+     * is currently unusable because one of its ends is blocked.
+     *
+     * @param cell The cell index.
+     * @return True if the cell is a teleportation endpoint, false otherwise.
+     */
+    public boolean isTeleportEndpoint(int cell) {
+        return teleportEndpoints.containsKey(cell);
+    }
+
+    /**
+     * Gets the destination of a cell's usable teleportation link, in the direction of this
+     * graph's edges; in the transposed graph a cell can have several, see neighbors().
+     *
+     * @param cell The cell index.
+     * @return The destination cell index, or -1 if the cell has no usable link or this is the
+     *         transposed graph.
+     */
+    public int getTeleportTarget(int cell) {
+        return reverse ? -1 : teleports.get(cell);
+    }
+
+    /**
+     * Enumerates the neighbors of a cell without allocating.
+     *
+     * @param cell    The cell index whose neighbors to visit.
+     * @param visitor The callback receiving each neighbor's cell index and edge cost.
+     */
+    public void forEachNeighbor(int cell, NeighborVisitor visitor) {
+        if (isSet(blocked, cell)) {
+            return;
+        }
+        int x = cell % width;
+        int y = cell / width;
+        for (int direction = 0; direction < 4; direction++) {
+            int nx = x + STEP_X[direction];
+            int ny = y + STEP_Y[direction];
+            boolean wraps = nx < 0 || nx >= width || ny < 0 || ny >= height;
+            if (wraps && !wrapAround) {
+                continue;
+            }
+            int target = wraps ? wrap(nx, ny) : ny * width + nx;
+            if (!isSet(blocked, target)) {
+                visitor.visit(target, stepCost(reverse ? cell : target, wraps));
+            }
+        }
+        if (reverse) {
+            for (int i = incoming.start(cell), end = incoming.end(cell); i < end; i++) {
+                visitor.visit(incoming.source(i), teleportCost);
+            }
+        } else {
+            int target = teleports.get(cell);
+            if (target >= 0) {
+                visitor.visit(target, teleportCost);
+            }
+        }
+    }
+
+    /**
+     * Writes the neighbors of a cell and the costs of the edges to them into arrays, in the
+     * order of forEachNeighbor(). Loops that need to skip or stop early use this form.
+     *
+     * @param cell    The cell index.
+     * @param targets Receives the neighbor cell indices; needs getMaxDegree() elements.
+     * @param costs   Receives the edge costs, or null if they are not needed.
+     * @return The number of neighbors written.
+     */
+    public int neighbors(int cell, int[] targets, double[] costs) {
+        if (isSet(blocked, cell)) {
+            return 0;
+        }
+        int count = 0;
+        int x = cell % width;
+        int y = cell / width;
+        for (int direction = 0; direction < 4; direction++) {
+            int nx = x + STEP_X[direction];
+            int ny = y + STEP_Y[direction];
+            boolean wraps = nx < 0 || nx >= width || ny < 0 || ny >= height;
+            if (wraps && !wrapAround) {
+                continue;
+            }
+            int target = wraps ? wrap(nx, ny) : ny * width + nx;
+            if (!isSet(blocked, target)) {
+                if (costs != null) {
+                    costs[count] = stepCost(reverse ? cell : target, wraps);
+                }
+                targets[count++] = target;
+            }
+        }
+        if (reverse) {
+            for (int i = incoming.start(cell), end = incoming.end(cell); i < end; i++) {
+                if (costs != null) {
+                    costs[count] = teleportCost;
+                }
+                targets[count++] = incoming.source(i);
+            }
+        } else {
+            int target = teleports.get(cell);
+            if (target >= 0) {
+                if (costs != null) {
+                    costs[count] = teleportCost;
+                }
+                targets[count++] = target;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of neighbors of a cell.
+     *
+     * @param cell The cell index.
+     * @return The number of outgoing edges.
+     */
+    public int degree(int cell) {
+        if (isSet(blocked, cell)) {
+            return 0;
+        }
+        int count = 0;
+        int x = cell % width;
+        int y = cell / width;
+        for (int direction = 0; direction < 4; direction++) {
+            int nx = x + STEP_X[direction];
+            int ny = y + STEP_Y[direction];
+            boolean wraps = nx < 0 || nx >= width || ny < 0 || ny >= height;
+            if ((!wraps || wrapAround) && !isSet(blocked, wraps ? wrap(nx, ny) : ny * width + nx)) {
+                count++;
+            }
+        }
+        if (reverse) {
+            return count + incoming.end(cell) - incoming.start(cell);
+        }
+        return teleports.get(cell) >= 0 ? count + 1 : count;
+    }
+
+    /**
+     * Gets an upper bound on the number of neighbors of a cell, the size neighbors() needs:
+     * four grid steps plus the teleportation edges.
+     *
+     * @return The maximum degree.
+     */
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Gets the cell a step off the grid wraps around to, like Graph does.
+     */
+    private int wrap(int x, int y) {
+        if (x < 0) {
+            x = width - 1;
+        } else if (x >= width) {
+            x = 0;
+        }
+        if (y < 0) {
+            y = height - 1;
+        } else if (y >= height) {
+            y = 0;
+        }
+        return y * width + x;
+    }
+
+    /**
+     * Gets the cost of a grid step onto (or, in the transposed graph, off) a cell.
+     */
+    private double stepCost(int cell, boolean wraps) {
+        float cost = costs == null ? 1 : costs[cell / MapFile.COST_CHUNK].get(cell % MapFile.COST_CHUNK);
+        return wraps ? cost + wrapPenalty : cost;
+    }
+
+    /**
+     * Checks if every edge has cost 1.
+     *
+     * @return True if edge costs are uniform, false otherwise.
+     */
+    public boolean hasUniformCosts() {
+        return statistics().uniform;
+    }
+
+    /**
+     * Checks if every edge cost is a whole number, so searches can use a bucketed priority
+     * queue indexed by distance instead of a binary heap.
+     *
+     * @return True if all edge costs are integers, false otherwise.
+     */
+    public boolean hasIntegerCosts() {
+        return statistics().integral;
+    }
+
+    /**
+     * Gets the highest edge cost, which bounds the spread of keys in a bucketed queue.
+     *
+     * @return The maximum edge cost, or 0 if there are no edges.
+     */
+    public double getMaxEdgeCost() {
+        return statistics().maxCost;
+    }
+
+    /**
+     * Gets a lower bound on the cost of every grid step (wrap-around steps included). The
+     * heuristics scale grid distances by it to stay admissible on weighted terrain.
+     *
+     * @return The minimum step cost, 1 on grids without a cost layer.
+     */
+    public double getMinStepCost() {
+        return minStepCost;
+    }
+
+    /**
+     * Gets the cost of a teleportation edge.
+     *
+     * @return The teleport cost.
+     */
+    public double getTeleportCost() {
+        return teleportCost;
+    }
+
+    /**
+     * Gets the number of passable cells.
+     *
+     * @return The number of vertices.
+     */
+    public int getVertexCount() {
+        int count = getCellCount();
+        for (int i = 0, end = blocked.limit(); i < end; i++) {
+            count -= Long.bitCount(blocked.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of directed edges, including wrap-around and teleportation edges.
+     *
+     * @return The number of edges.
+     */
+    public int getEdgeCount() {
+        return statistics().edges;
+    }
+
+    /**
+     * Gets the version of the graph this was compiled from, see Graph.getVersion().
+     *
+     * @return The graph version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the number of teleportation edges.
+     *
+     * @return The number of teleportation edges.
+     */
+    public int getTeleportEdgeCount() {
+        return teleports.size();
+    }
+
+    /**
+     * Estimates the memory used by the arrays of this graph. The bitset and cost layer are
+     * shared with the Graph it was compiled from until the Graph changes, or are the mapped
+     * pages of the map file.
+     *
+     * @return The approximate size in bytes.
+     */
+    public long getMemoryFootprint() {
+        long bytes = 8L * blocked.limit() + teleports.getMemoryFootprint() + teleportEndpoints.getMemoryFootprint();
+        if (costs != null) {
+            bytes += 4L * getCellCount();
+        }
+        if (incoming != null) {
+            bytes += incoming.getMemoryFootprint();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,197 @@
+package Algorithm;
+
+/**
+ * Parsed form of the composite seed string that encodes a whole scenario.
+ * 
+ * Composite seed format:
+ * width-height-blockedPercent-teleportPercent-seed-startX-startY-endX-endY[-generatorVersion]
+ * Example: "10-10-0.2-0.05-123456789-0-0-9-9"
+ * Without the optional generator version the grid comes from GridGenerator.LEGACY, so seeds
+ * written before the field existed still reproduce the same grid.
+ */
+public class CompositeSeed {
+    final int width, height;
+    final double blockedPercent, teleportPercent;
+    final long seed;
+    final int startX, startY, endX, endY;
+    final int generatorVersion;
+
+    /**
+     * Constructor for CompositeSeed.
+     * Start and end coordinates are clamped to the grid bounds.
+     *
+     * @param width           Width of the grid.
+     * @param height          Height of the grid.
+     * @param blockedPercent  Fraction of cells to be blocked.
+     * @param teleportPercent Fraction of cells to be teleportation nodes.
+     * @param seed            Random seed for grid generation.
+     * @param startX          X-coordinate of the start node.
+     * @param startY          Y-coordinate of the start node.
+     * @param endX            X-coordinate of the goal node.
+     * @param endY            Y-coordinate of the goal node.
+     */
+    public CompositeSeed(int width, int height, double blockedPercent, double teleportPercent, long seed,
+            int startX, int startY, int endX, int endY) {
+        this(width, height, blockedPercent, teleportPercent, seed, startX, startY, endX, endY, GridGenerator.LEGACY);
+    }
+
+    /**
+     * Constructor for CompositeSeed with an explicit generator version.
+     * Start and end coordinates are clamped to the grid bounds.
+     *
+     * @param width            Width of the grid.
+     * @param height           Height of the grid.
+     * @param blockedPercent   Fraction of cells to be blocked.
+     * @param teleportPercent  Fraction of cells to be teleportation nodes.
+     * @param seed             Random seed for grid generation.
+     * @param startX           X-coordinate of the start node.
+     * @param startY           Y-coordinate of the start node.
+     * @param endX             X-coordinate of the goal node.
+     * @param endY             Y-coordinate of the goal node.
+     * @param generatorVersion The grid generator version, see GridGenerator.
+     */
+    public CompositeSeed(int width, int height, double blockedPercent, double teleportPercent, long seed,
+            int startX, int startY, int endX, int endY, int generatorVersion) {
+        if (generatorVersion != GridGenerator.LEGACY && generatorVersion != GridGenerator.CHUNKED) {
+            throw new IllegalArgumentException("Unknown generator version: " + generatorVersion);
+        }
+        this.generatorVersion = generatorVersion;
+        this.width = width;
+        this.height = height;
+        this.blockedPercent = blockedPercent;
+        this.teleportPercent = teleportPercent;
+        this.seed = seed;
+        this.startX = Math.max(0, Math.min(width - 1, startX));
+        this.startY = Math.max(0, Math.min(height - 1, startY));
+        this.endX = Math.max(0, Math.min(width - 1, endX));
+        this.endY = Math.max(0, Math.min(height - 1, endY));
+    }
+
+    /**
+     * Parses a composite seed string.
+     *
+     * @param text The composite seed string.
+     * @return The parsed seed.
+     * @throws IllegalArgumentException If the string is not a valid composite seed.
+     */
+    public static CompositeSeed parse(String text) {
+        String[] parts = text.trim().split("-");
+        if (parts.length != 9 && parts.length != 10) {
+            throw new IllegalArgumentException("Invalid seed format. Use: "
+                    + "width-height-blocked-teleport-seed-startX-startY-endX-endY[-generatorVersion]");
+        }
+        try {
+            return new CompositeSeed(
+                    Integer.parseInt(parts[0]),
+                    Integer.parseInt(parts[1]),
+                    Double.parseDouble(parts[2]),
+                    Double.parseDouble(parts[3]),
+                    Long.parseLong(parts[4]),
+                    Integer.parseInt(parts[5]),
+                    Integer.parseInt(parts[6]),
+                    Integer.parseInt(parts[7]),
+                    Integer.parseInt(parts[8]),
+                    parts.length == 10 ? Integer.parseInt(parts[9]) : GridGenerator.LEGACY);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in seed: " + text, e);
+        }
+    }
+
+    /**
+     * Generates the grid described by this seed and sets its start and goal nodes.
+     *
+     * @return The generated graph.
+     */
+    public Graph createGraph() {
+        Graph graph = new Graph(width, height);
+        GridGenerator.generate(graph, blockedPercent, teleportPercent, seed, generatorVersion);
+        graph.setStart(new Node(startX, startY));
+        graph.setGoal(new Node(endX, endY));
+        return graph;
+    }
+
+    /**
+     * Gets the width of the grid.
+     *
+     * @return The width of the grid.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the grid.
+     *
+     * @return The height of the grid.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the fraction of blocked cells.
+     *
+     * @return The blocked fraction.
+     */
+    public double getBlockedPercent() {
+        return blockedPercent;
+    }
+
+    /**
+     * Gets the fraction of teleportation cells.
+     *
+     * @return The teleport fraction.
+     */
+    public double getTeleportPercent() {
+        return teleportPercent;
+    }
+
+    /**
+     * Gets the random seed for grid generation.
+     *
+     * @return The random seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the start node encoded in this seed.
+     *
+     * @return The start node.
+     */
+    public Node getStart() {
+        return new Node(startX, startY);
+    }
+
+    /**
+     * Gets the goal node encoded in this seed.
+     *
+     * @return The goal node.
+     */
+    public Node getGoal() {
+        return new Node(endX, endY);
+    }
+
+    /**
+     * Gets the grid generator version.
+     *
+     * @return The generator version, see GridGenerator.
+     */
+    public int getGeneratorVersion() {
+        return generatorVersion;
+    }
+
+    /**
+     * Formats this seed back into its composite string form. The generator version is only
+     * written when it is not the legacy one, so legacy seeds keep their nine fields.
+     *
+     * @return The composite seed string.
+     */
+    @Override
+    public String toString() {
+        return width + "-" + height + "-" + blockedPercent + "-" + teleportPercent + "-" + seed
+                + "-" + startX + "-" + startY + "-" + endX + "-" + endY
+                + (generatorVersion == GridGenerator.LEGACY ? "" : "-" + generatorVersion);
+    }
+}
@@ -0,0 +1,240 @@
+package Algorithm;
+
+
+/**
+ * Connected-component index for instant unreachable-goal detection.
+ * Cells are grouped with union-find over every edge (grid steps with wrap-around, and
+ * teleportation links), treating edges as undirected. Two cells in different components can
+ * never reach each other, so searches can return "no path" in O(1) instead of exhausting the
+ * reachable region. Cells in the same component are reachable whenever every teleportation
+ * link is two-way, as in generated grids; with one-way links mayReach() is a necessary
+ * condition only, and the search still decides.
+ *
+ * An index built for a Graph listens to it: unblocking a cell merges components right away
+ * (union-find cannot split them, so blocking a cell or changing teleportation links or
+ * wrap-around marks the index for a rebuild on its next query). An index built for a
+ * CompiledGraph is a fixed snapshot.
+ */
+public class ConnectivityIndex implements GraphListener {
+    private final Graph graph; // Live graph this index follows, or null for a snapshot
+    private final CompiledGraph snapshot; // Compiled graph of a snapshot index, or null
+    private final int width;
+    private final int[] parent; // Union-find parent of each cell, or -1 for blocked cells
+    private final int[] size; // Component size, valid for roots
+    private TeleportSources teleportSources; // Incoming teleportation links per cell, for live indexes
+    private volatile boolean stale = true; // Set when a change cannot be applied incrementally
+    private final NeighborVisitor merger = (neighbor, cost) -> union(this.mergeCell, neighbor);
+    private int mergeCell; // Cell whose edges the merger is visiting
+
+    /**
+     * Constructor for a snapshot index of a compiled graph.
+     *
+     * @param graph The compiled graph.
+     */
+    public ConnectivityIndex(CompiledGraph graph) {
+        this.graph = null;
+        this.snapshot = graph;
+        this.width = graph.getWidth();
+        this.parent = new int[graph.getCellCount()];
+        this.size = new int[graph.getCellCount()];
+        rebuild();
+    }
+
+    /**
+     * Constructor for an index that follows a graph as it changes.
+     * Registers the index as a listener on the graph.
+     *
+     * @param graph The graph.
+     */
+    public ConnectivityIndex(Graph graph) {
+        this.graph = graph;
+        this.snapshot = null;
+        this.width = graph.getWidth();
+        this.parent = new int[graph.getWidth() * graph.getHeight()];
+        this.size = new int[parent.length];
+        rebuild();
+        graph.addGraphListener(this);
+    }
+
+    /**
+     * Gets the graph version this index answers for.
+     *
+     * @return The current version of a live graph, or the version of the snapshot.
+     */
+    public long getVersion() {
+        return graph != null ? graph.getVersion() : snapshot.getVersion();
+    }
+
+    /**
+     * Checks if a path from one cell to another may exist.
+     *
+     * @param from The starting cell index.
+     * @param to   The goal cell index.
+     * @return False if no path can exist, true otherwise.
+     */
+    public boolean mayReach(int from, int to) {
+        if (from == to) {
+            return true;
+        }
+        ensureCurrent();
+        int a = find(from);
+        return a >= 0 && a == find(to);
+    }
+
+    /**
+     * Gets the component label of a cell: the same for all cells of one component.
+     *
+     * @param cell The cell index.
+     * @return The label, or -1 for blocked cells.
+     */
+    public int getLabel(int cell) {
+        ensureCurrent();
+        return find(cell);
+    }
+
+    /**
+     * Gets the number of components of free cells.
+     *
+     * @return The number of components.
+     */
+    public int getComponentCount() {
+        ensureCurrent();
+        int count = 0;
+        for (int cell = 0; cell < parent.length; cell++) {
+            if (parent[cell] == cell) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Merges the components around an unblocked cell, or marks the index for a rebuild when a
+     * free cell was blocked. Cost changes leave the components as they are.
+     */
+    @Override
+    public void cellChanged(int x, int y, boolean blocked) {
+        if (stale) {
+            return;
+        }
+        int cell = y * width + x;
+        if (blocked) {
+            if (parent[cell] >= 0) {
+                stale = true; // Removing a cell may split its component
+            }
+            return;
+        }
+        if (parent[cell] >= 0) {
+            return; // Was not blocked before
+        }
+        parent[cell] = cell;
+        size[cell] = 1;
+        connect(cell);
+    }
+
+    /**
+     * Marks the index for a rebuild.
+     */
+    @Override
+    public void graphChanged() {
+        stale = true;
+    }
+
+    /**
+     * Unregisters a live index from its graph.
+     */
+    public void close() {
+        if (graph != null) {
+            graph.removeGraphListener(this);
+        }
+    }
+
+    private void ensureCurrent() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /**
+     * Labels every cell from scratch and flattens the trees so every cell points at its root.
+     */
+    private void rebuild() {
+        for (int cell = 0; cell < parent.length; cell++) {
+            parent[cell] = isFree(cell) ? cell : -1;
+            size[cell] = 1;
+        }
+        if (graph != null) {
+            teleportSources = graph.getTeleportSources();
+        }
+        for (int cell = 0; cell < parent.length; cell++) {
+            if (parent[cell] >= 0) {
+                mergeCell = cell;
+                if (graph != null) {
+                    graph.forEachNeighbor(cell, merger);
+                } else {
+                    snapshot.forEachNeighbor(cell, merger);
+                }
+            }
+        }
+        for (int cell = 0; cell < parent.length; cell++) {
+            if (parent[cell] >= 0) {
+                parent[cell] = find(cell);
+            }
+        }
+        stale = false;
+    }
+
+    /**
+     * Merges a newly unblocked cell with every free cell it has an edge to or from.
+     */
+    private void connect(int cell) {
+        mergeCell = cell;
+        graph.forEachNeighbor(cell, merger); // Grid steps are symmetric, so this covers incoming steps too
+        for (int i = teleportSources.start(cell); i < teleportSources.end(cell); i++) {
+            union(cell, teleportSources.source(i));
+        }
+    }
+
+    private boolean isFree(int cell) {
+        return graph != null ? !graph.isBlocked(cell % width, cell / width) : snapshot.isPassable(cell);
+    }
+
+    /**
+     * Finds the root of a cell's tree without modifying the trees, so concurrent queries only read.
+     * Union by size keeps the trees O(log n) deep between rebuilds.
+     *
+     * @return The root cell index, or -1 for a blocked cell.
+     */
+    private int find(int cell) {
+        int root = parent[cell];
+        if (root < 0) {
+            return -1;
+        }
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        return root;
+    }
+
+    /**
+     * Merges the components of two cells, attaching the smaller tree to the larger one.
+     */
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA < 0 || rootB < 0 || rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+    }
+}
@@ -0,0 +1,583 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction Hierarchies (Geisberger et al.) for repeated queries on a static map.
+ * Cells are contracted one at a time, least important first: removing a cell v adds a shortcut
+ * u -> w for every pair of remaining neighbors whose only shortest connection runs through v,
+ * unless a bounded witness search finds another path that is as short. Every edge of the
+ * compiled graph takes part, so teleportation and wrap-around edges are contracted like grid
+ * steps. A query then only climbs the hierarchy: a forward search from the start along
+ * upward edges and a backward search from the goal along downward edges meet at the highest
+ * cell of the shortest path (see ContractionSearch), settling a few hundred cells instead of a
+ * large part of the grid.
+ *
+ * The hierarchy is immutable and can be queried from several threads. It belongs to one
+ * compiled graph; after an edit the next compiled graph builds a new one on first use.
+ */
+public class ContractionHierarchy {
+    /** Witness searches give up after settling this many cells and add the shortcut. */
+    public static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int ESTIMATE_SETTLE_LIMIT = 20; // Witness limit when only estimating priorities
+
+    private final CompiledGraph graph;
+    private final int[] rank; // Contraction order of each cell; edges in the query graph lead to higher ranks
+    private final int[] upStart; // upStart[v]..upStart[v + 1]: edges v -> w with rank[w] > rank[v]
+    private final int[] upEdge; // Edge id of each upward edge
+    private final int[] downStart; // downStart[v]..downStart[v + 1]: edges u -> v with rank[u] > rank[v]
+    private final int[] downEdge; // Edge id of each downward edge
+    private final int[] edgeSource; // Source cell of each edge id
+    private final int[] edgeTarget; // Target cell of each edge id
+    private final double[] edgeCost; // Cost of each edge id
+    private final int[] edgeFirst; // First half of a shortcut, or -1 for an edge of the graph
+    private final int[] edgeSecond; // Second half of a shortcut, or -1 for an edge of the graph
+    private final int shortcutCount;
+    private final long preprocessingTime; // Nanoseconds spent in build()
+
+    private ContractionHierarchy(CompiledGraph graph, int[] rank, int[] upStart, int[] upEdge, int[] downStart,
+            int[] downEdge, EdgePool edges, long preprocessingTime) {
+        this.graph = graph;
+        this.rank = rank;
+        this.upStart = upStart;
+        this.upEdge = upEdge;
+        this.downStart = downStart;
+        this.downEdge = downEdge;
+        this.edgeSource = Arrays.copyOf(edges.source, edges.size);
+        this.edgeTarget = Arrays.copyOf(edges.target, edges.size);
+        this.edgeCost = Arrays.copyOf(edges.cost, edges.size);
+        this.edgeFirst = Arrays.copyOf(edges.first, edges.size);
+        this.edgeSecond = Arrays.copyOf(edges.second, edges.size);
+        this.shortcutCount = edges.size - edges.originalCount;
+        this.preprocessingTime = preprocessingTime;
+    }
+
+    /**
+     * Contracts every cell of a graph.
+     * Cells are ordered by edge difference (shortcuts added minus edges removed) plus the
+     * number of already contracted neighbors and their depth, which spreads the contraction
+     * evenly over the map. After each contraction the priorities of the contracted cell's
+     * neighbors are recomputed, since their edges and shortcuts just changed; other cells are
+     * checked lazily when they reach the front of the queue.
+     *
+     * @param graph The compiled graph.
+     * @return The contraction hierarchy.
+     */
+    public static ContractionHierarchy build(CompiledGraph graph) {
+        long startTime = System.nanoTime();
+        int cellCount = graph.getCellCount();
+        Contractor contractor = new Contractor(graph);
+
+        // The first priorities only read the graph, so each worker gets its own witness search
+        double[] priority = new double[cellCount];
+        int chunk = 4096;
+        IntStream.range(0, (cellCount + chunk - 1) / chunk).parallel().forEach(c -> {
+            Witness witness = new Witness(cellCount);
+            for (int v = c * chunk, end = Math.min(cellCount, v + chunk); v < end; v++) {
+                priority[v] = contractor.priority(v, witness);
+            }
+        });
+        IndexedMinHeap queue = new IndexedMinHeap(cellCount);
+        for (int v = 0; v < cellCount; v++) {
+            queue.insert(v, priority[v]);
+        }
+
+        int[] rank = new int[cellCount];
+        int next = 0;
+        Witness witness = new Witness(cellCount);
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            double current = contractor.priority(v, witness);
+            if (!queue.isEmpty() && current > queue.peekKey()) {
+                queue.insert(v, current); // Lazy update: something more urgent came up
+                continue;
+            }
+            rank[v] = next++;
+            int[] neighbors = contractor.contract(v, witness);
+            for (int u : neighbors) {
+                if (queue.contains(u)) {
+                    queue.update(u, contractor.priority(u, witness));
+                }
+            }
+        }
+
+        // Upward and downward edges were recorded when each cell was contracted
+        int[] upStart = new int[cellCount + 1];
+        int[] downStart = new int[cellCount + 1];
+        for (int v = 0; v < cellCount; v++) {
+            upStart[v + 1] = upStart[v] + contractor.up[v].length;
+            downStart[v + 1] = downStart[v] + contractor.down[v].length;
+        }
+        int[] upEdge = new int[upStart[cellCount]];
+        int[] downEdge = new int[downStart[cellCount]];
+        for (int v = 0; v < cellCount; v++) {
+            System.arraycopy(contractor.up[v], 0, upEdge, upStart[v], contractor.up[v].length);
+            System.arraycopy(contractor.down[v], 0, downEdge, downStart[v], contractor.down[v].length);
+        }
+        return new ContractionHierarchy(graph, rank, upStart, upEdge, downStart, downEdge, contractor.edges,
+                System.nanoTime() - startTime);
+    }
+
+    /**
+     * Gets the graph this hierarchy was built for.
+     *
+     * @return The compiled graph.
+     */
+    public CompiledGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets the contraction order of a cell.
+     *
+     * @param cell The cell index.
+     * @return The rank; query edges always lead to a higher rank.
+     */
+    public int rank(int cell) {
+        return rank[cell];
+    }
+
+    /**
+     * Gets the first upward edge of a cell, for the forward search.
+     *
+     * @param cell The cell index.
+     * @return The position of the first upward edge.
+     */
+    public int upStart(int cell) {
+        return upStart[cell];
+    }
+
+    /**
+     * Gets the end (exclusive) of the upward edges of a cell.
+     *
+     * @param cell The cell index.
+     * @return The position after the last upward edge.
+     */
+    public int upEnd(int cell) {
+        return upStart[cell + 1];
+    }
+
+    /**
+     * Gets the edge id at a position of the upward edges; its source is the cell.
+     *
+     * @param position The position, between upStart and upEnd of a cell.
+     * @return The edge id.
+     */
+    public int upEdge(int position) {
+        return upEdge[position];
+    }
+
+    /**
+     * Gets the first downward edge of a cell, for the backward search: edges from a higher cell
+     * into this one.
+     *
+     * @param cell The cell index.
+     * @return The position of the first downward edge.
+     */
+    public int downStart(int cell) {
+        return downStart[cell];
+    }
+
+    /**
+     * Gets the end (exclusive) of the downward edges of a cell.
+     *
+     * @param cell The cell index.
+     * @return The position after the last downward edge.
+     */
+    public int downEnd(int cell) {
+        return downStart[cell + 1];
+    }
+
+    /**
+     * Gets the edge id at a position of the downward edges; its target is the cell.
+     *
+     * @param position The position, between downStart and downEnd of a cell.
+     * @return The edge id.
+     */
+    public int downEdge(int position) {
+        return downEdge[position];
+    }
+
+    /**
+     * Gets the source cell of an edge.
+     *
+     * @param edge The edge id.
+     * @return The source cell index.
+     */
+    public int edgeSource(int edge) {
+        return edgeSource[edge];
+    }
+
+    /**
+     * Gets the target cell of an edge.
+     *
+     * @param edge The edge id.
+     * @return The target cell index.
+     */
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * Gets the cost of an edge, which for a shortcut is the cost of the path it replaces.
+     *
+     * @param edge The edge id.
+     * @return The edge cost.
+     */
+    public double edgeCost(int edge) {
+        return edgeCost[edge];
+    }
+
+    /**
+     * Finds the cheapest edge between two cells.
+     *
+     * @param from The source cell index.
+     * @param to   The target cell index.
+     * @return The edge id, or -1 if the query graph has no such edge.
+     */
+    public int findEdge(int from, int to) {
+        int best = -1;
+        if (rank[to] > rank[from]) {
+            for (int i = upStart[from]; i < upStart[from + 1]; i++) {
+                int edge = upEdge[i];
+                if (edgeTarget[edge] == to && (best < 0 || edgeCost[edge] < edgeCost[best])) {
+                    best = edge;
+                }
+            }
+        } else {
+            for (int i = downStart[to]; i < downStart[to + 1]; i++) {
+                int edge = downEdge[i];
+                if (edgeSource[edge] == from && (best < 0 || edgeCost[edge] < edgeCost[best])) {
+                    best = edge;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Expands a path of the query graph into the cells it crosses, replacing every shortcut by
+     * the edges it was made of.
+     *
+     * @param cells The cells of the path in the query graph, from start to goal.
+     * @return The cell indices from start to goal in the grid graph.
+     */
+    public int[] unpack(int[] cells) {
+        int[] path = new int[Math.max(16, cells.length * 2)];
+        path[0] = cells[0];
+        int length = 1;
+        int[] stack = new int[16];
+        for (int i = 1; i < cells.length; i++) {
+            int top = 0;
+            stack[top++] = findEdge(cells[i - 1], cells[i]);
+            while (top > 0) {
+                int edge = stack[--top];
+                if (edgeFirst[edge] < 0) {
+                    if (length == path.length) {
+                        path = Arrays.copyOf(path, length * 2);
+                    }
+                    path[length++] = edgeTarget[edge];
+                    continue;
+                }
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = edgeSecond[edge]; // Pushed first so the first half comes out first
+                stack[top++] = edgeFirst[edge];
+            }
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Gets the number of shortcuts added by the contraction.
+     *
+     * @return The number of shortcuts.
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * Gets the time spent contracting the graph.
+     *
+     * @return The preprocessing time in milliseconds.
+     */
+    public double getPreprocessingTime() {
+        return preprocessingTime / 1e6;
+    }
+
+    /**
+     * Estimates the memory used by the arrays of this hierarchy.
+     *
+     * @return The approximate size in bytes.
+     */
+    public long getMemoryFootprint() {
+        return 4L * rank.length + 4L * (upStart.length + upEdge.length + downStart.length + downEdge.length)
+                + 24L * edgeTarget.length + 8L * edgeCost.length;
+    }
+
+    /**
+     * Every edge ever created, with the halves of each shortcut.
+     */
+    private static final class EdgePool {
+        int[] source = new int[1024];
+        int[] target = new int[1024];
+        double[] cost = new double[1024];
+        int[] first = new int[1024];
+        int[] second = new int[1024];
+        int size;
+        int originalCount; // Edges of the graph itself; the rest are shortcuts
+
+        int add(int from, int to, double edgeCost, int firstHalf, int secondHalf) {
+            if (size == target.length) {
+                int capacity = size * 2;
+                source = Arrays.copyOf(source, capacity);
+                target = Arrays.copyOf(target, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+                first = Arrays.copyOf(first, capacity);
+                second = Arrays.copyOf(second, capacity);
+            }
+            source[size] = from;
+            target[size] = to;
+            cost[size] = edgeCost;
+            first[size] = firstHalf;
+            second[size] = secondHalf;
+            return size++;
+        }
+    }
+
+    /**
+     * The graph being contracted: the edge ids into and out of every cell that is not
+     * contracted yet. Edges to a cell are dropped from its neighbors' lists when it is contracted.
+     */
+    private static final class Contractor {
+        final EdgePool edges = new EdgePool();
+        final int[][] out; // Edge ids leaving each cell, towards remaining cells
+        final int[] outCount;
+        final int[][] in; // Edge ids entering each cell, from remaining cells
+        final int[] inCount;
+        final int[] contractedNeighbors; // Number of neighbors contracted so far
+        final int[] level; // Longest chain of contracted cells below each cell
+        final boolean[] contracted;
+        final int[][] up; // Edges to higher cells, recorded when each cell is contracted
+        final int[][] down; // Edges from higher cells, recorded when each cell is contracted
+
+        Contractor(CompiledGraph graph) {
+            int cellCount = graph.getCellCount();
+            out = new int[cellCount][];
+            outCount = new int[cellCount];
+            in = new int[cellCount][];
+            inCount = new int[cellCount];
+            contractedNeighbors = new int[cellCount];
+            level = new int[cellCount];
+            contracted = new boolean[cellCount];
+            up = new int[cellCount][];
+            down = new int[cellCount][];
+            for (int v = 0; v < cellCount; v++) {
+                out[v] = new int[Math.max(4, graph.degree(v))];
+                in[v] = new int[4];
+            }
+            int[] neighbors = new int[graph.getMaxDegree()];
+            double[] costs = new double[neighbors.length];
+            for (int v = 0; v < cellCount; v++) {
+                for (int i = 0, count = graph.neighbors(v, neighbors, costs); i < count; i++) {
+                    addOrImprove(v, neighbors[i], costs[i], -1, -1);
+                }
+            }
+            edges.originalCount = edges.size;
+        }
+
+        /**
+         * Adds an edge, or lowers the cost of an existing edge between the same cells.
+         * Loops are dropped.
+         */
+        void addOrImprove(int from, int to, double cost, int firstHalf, int secondHalf) {
+            if (from == to) {
+                return;
+            }
+            for (int i = 0; i < outCount[from]; i++) {
+                int e = out[from][i];
+                if (edges.target[e] == to) {
+                    if (cost < edges.cost[e]) {
+                        // Neither end is contracted, so no shortcut refers to this edge yet
+                        edges.cost[e] = cost;
+                        edges.first[e] = firstHalf;
+                        edges.second[e] = secondHalf;
+                    }
+                    return;
+                }
+            }
+            int e = edges.add(from, to, cost, firstHalf, secondHalf);
+            if (outCount[from] == out[from].length) {
+                out[from] = Arrays.copyOf(out[from], outCount[from] * 2);
+            }
+            out[from][outCount[from]++] = e;
+            if (inCount[to] == in[to].length) {
+                in[to] = Arrays.copyOf(in[to], inCount[to] * 2);
+            }
+            in[to][inCount[to]++] = e;
+        }
+
+        /**
+         * Computes the priority of contracting a cell now: edge difference plus contracted
+         * neighbors. Only reads the lists, so it can run on several threads.
+         */
+        double priority(int v, Witness witness) {
+            int shortcuts = shortcuts(v, witness, false);
+            int removed = outCount[v] + inCount[v];
+            return 2.0 * (shortcuts - removed) + contractedNeighbors[v] + level[v];
+        }
+
+        /**
+         * Contracts a cell: records its upward and downward edges, adds the needed shortcuts
+         * and drops it from its neighbors' lists.
+         *
+         * @return The neighbors, whose priority may have changed.
+         */
+        int[] contract(int v, Witness witness) {
+            up[v] = Arrays.copyOf(out[v], outCount[v]);
+            down[v] = Arrays.copyOf(in[v], inCount[v]);
+            shortcuts(v, witness, true);
+            contracted[v] = true;
+            int[] neighbors = new int[up[v].length + down[v].length];
+            int count = 0;
+            for (int e : up[v]) {
+                int w = edges.target[e];
+                inCount[w] = removeEdgesWith(in[w], inCount[w], v, edges.source);
+                neighbors[count++] = w;
+            }
+            for (int e : down[v]) {
+                int u = edges.source[e];
+                outCount[u] = removeEdgesWith(out[u], outCount[u], v, edges.target);
+                neighbors[count++] = u;
+            }
+            neighbors = Arrays.stream(neighbors, 0, count).distinct().toArray();
+            for (int u : neighbors) {
+                contractedNeighbors[u]++;
+                level[u] = Math.max(level[u], level[v] + 1);
+            }
+            out[v] = null;
+            in[v] = null;
+            return neighbors;
+        }
+
+        private static int removeEdgesWith(int[] list, int count, int cell, int[] endpoint) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (endpoint[list[i]] != cell) {
+                    list[kept++] = list[i];
+                }
+            }
+            return kept;
+        }
+
+        /**
+         * Counts, or adds, the shortcuts needed to contract a cell: one for every in-neighbor u
+         * and out-neighbor w whose path u -> v -> w has no witness at most as short.
+         */
+        int shortcuts(int v, Witness witness, boolean add) {
+            int count = 0;
+            int outs = outCount[v];
+            int ins = inCount[v];
+            if (outs == 0 || ins == 0) {
+                return 0;
+            }
+            double maxOut = 0;
+            for (int j = 0; j < outs; j++) {
+                maxOut = Math.max(maxOut, edges.cost[out[v][j]]);
+            }
+            witness.setTargets(this, out[v], outs);
+            for (int i = 0; i < ins; i++) {
+                int inEdge = in[v][i];
+                int u = edges.source[inEdge];
+                double toV = edges.cost[inEdge];
+                witness.run(this, u, v, toV + maxOut, add ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+                for (int j = 0; j < outs; j++) {
+                    int outEdge = out[v][j];
+                    int w = edges.target[outEdge];
+                    double via = toV + edges.cost[outEdge];
+                    if (w == u || witness.distance(w) <= via) {
+                        continue;
+                    }
+                    count++;
+                    if (add) {
+                        addOrImprove(u, w, via, inEdge, outEdge);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Bounded Dijkstra among the remaining cells, skipping the cell being contracted.
+     */
+    private static final class Witness {
+        private final double[] distance;
+        private final int[] stamp; // Run in which distance[] was last written
+        private final int[] targetStamp; // Target set a cell belongs to
+        private final IndexedMinHeap open;
+        private int run;
+        private int targetSet;
+        private int targetCount;
+
+        Witness(int cellCount) {
+            distance = new double[cellCount];
+            stamp = new int[cellCount];
+            targetStamp = new int[cellCount];
+            open = new IndexedMinHeap(cellCount);
+        }
+
+        /**
+         * Sets the cells the next runs look for; a run stops once all of them are settled.
+         */
+        void setTargets(Contractor graph, int[] edgeIds, int count) {
+            targetSet++;
+            targetCount = 0;
+            for (int i = 0; i < count; i++) {
+                int w = graph.edges.target[edgeIds[i]];
+                if (targetStamp[w] != targetSet) {
+                    targetStamp[w] = targetSet;
+                    targetCount++;
+                }
+            }
+        }
+
+        void run(Contractor graph, int source, int excluded, double maxCost, int settleLimit) {
+            run++;
+            open.clear();
+            distance[source] = 0;
+            stamp[source] = run;
+            open.insert(source, 0);
+            int settled = 0;
+            int remaining = targetCount;
+            while (!open.isEmpty() && open.peekKey() <= maxCost && settled < settleLimit) {
+                int u = open.poll();
+                settled++;
+                if (targetStamp[u] == targetSet && --remaining == 0) {
+                    break;
+                }
+                double base = distance[u];
+                for (int i = 0; i < graph.outCount[u]; i++) {
+                    int e = graph.out[u][i];
+                    int w = graph.edges.target[e];
+                    if (w == excluded) {
+                        continue;
+                    }
+                    double d = base + graph.edges.cost[e];
+                    if (stamp[w] != run || d < distance[w]) {
+                        distance[w] = d;
+                        stamp[w] = run;
+                        open.insertOrDecrease(w, d);
+                    }
+                }
+            }
+        }
+
+        double distance(int cell) {
+            return stamp[cell] == run ? distance[cell] : Double.POSITIVE_INFINITY;
+        }
+    }
+}
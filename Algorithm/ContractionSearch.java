@@ -0,0 +1,132 @@
+package Algorithm;
+
+/**
+ * Shortest-path query on a ContractionHierarchy.
+ * A forward search from the start follows only upward edges and a backward search from the
+ * goal only downward edges, alternating by smallest key; each side stops once its smallest
+ * key reaches the best meeting cost found so far. Cells reached more cheaply from a higher cell
+ * than by the edge just relaxed are stalled (stall-on-demand) and not expanded. The meeting path
+ * is then unpacked into grid cells, so results look the same as those of the other searches.
+ */
+public class ContractionSearch extends AStar {
+    private final ContractionHierarchy hierarchy;
+    private final SearchState backward; // Backward g/parent/closed arrays; parent points toward the goal
+
+    /**
+     * Constructor for ContractionSearch.
+     *
+     * @param graph The compiled graph to search in.
+     * @param start The starting cell index.
+     * @param goal  The goal cell index.
+     * @param state The forward search state; its backward partner state is used for the
+     *              backward search.
+     */
+    public ContractionSearch(CompiledGraph graph, int start, int goal, SearchState state) {
+        super(graph, start, goal, state);
+        this.hierarchy = graph.contractionHierarchy();
+        this.backward = state.getBackwardState();
+    }
+
+    /**
+     * Runs the bidirectional upward search and unpacks the result.
+     *
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    @Override
+    public int[] searchCells() {
+        nodesSearched = 0;
+        if (start == goal) {
+            return new int[] { start };
+        }
+        if (!mayReachGoal()) {
+            return null;
+        }
+        state.reset();
+        backward.reset();
+        IndexedMinHeap forwardOpen = state.getOpenSet();
+        IndexedMinHeap backwardOpen = backward.getOpenSet();
+        state.visit(start, 0, 0, -1);
+        forwardOpen.insert(start, 0);
+        backward.visit(goal, 0, 0, -1);
+        backwardOpen.insert(goal, 0);
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+
+        while (true) {
+            boolean forwardDone = forwardOpen.isEmpty() || forwardOpen.peekKey() >= best;
+            boolean backwardDone = backwardOpen.isEmpty() || backwardOpen.peekKey() >= best;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            boolean forward = !forwardDone && (backwardDone || forwardOpen.peekKey() <= backwardOpen.peekKey());
+            SearchState side = forward ? state : backward;
+            SearchState other = forward ? backward : state;
+            int current = (forward ? forwardOpen : backwardOpen).poll();
+            nodesSearched++;
+            side.close(current);
+            double g = side.getG(current);
+            double total = g + other.getG(current);
+            if (total < best) {
+                best = total;
+                meeting = current;
+            }
+            if (forward) {
+                expandForward(current, g);
+            } else {
+                expandBackward(current, g);
+            }
+        }
+        if (meeting < 0) {
+            return null;
+        }
+
+        int[] head = state.pathTo(meeting);
+        int[] tail = backward.pathTo(meeting); // Goal first
+        int[] cells = new int[head.length + tail.length - 1];
+        System.arraycopy(head, 0, cells, 0, head.length);
+        for (int i = 1; i < tail.length; i++) {
+            cells[head.length - 1 + i] = tail[tail.length - 1 - i];
+        }
+        return hierarchy.unpack(cells);
+    }
+
+    /**
+     * Relaxes the upward edges of a cell, unless a higher cell reaches it more cheaply.
+     */
+    private void expandForward(int current, double g) {
+        for (int i = hierarchy.downStart(current), end = hierarchy.downEnd(current); i < end; i++) {
+            int edge = hierarchy.downEdge(i);
+            if (state.getG(hierarchy.edgeSource(edge)) + hierarchy.edgeCost(edge) < g) {
+                return; // Stalled
+            }
+        }
+        for (int i = hierarchy.upStart(current), end = hierarchy.upEnd(current); i < end; i++) {
+            int edge = hierarchy.upEdge(i);
+            relax(state, current, hierarchy.edgeTarget(edge), g + hierarchy.edgeCost(edge));
+        }
+    }
+
+    /**
+     * Relaxes the downward edges into a cell, backwards, unless a higher cell reaches the goal
+     * from it more cheaply.
+     */
+    private void expandBackward(int current, double g) {
+        for (int i = hierarchy.upStart(current), end = hierarchy.upEnd(current); i < end; i++) {
+            int edge = hierarchy.upEdge(i);
+            if (backward.getG(hierarchy.edgeTarget(edge)) + hierarchy.edgeCost(edge) < g) {
+                return; // Stalled
+            }
+        }
+        for (int i = hierarchy.downStart(current), end = hierarchy.downEnd(current); i < end; i++) {
+            int edge = hierarchy.downEdge(i);
+            relax(backward, current, hierarchy.edgeSource(edge), g + hierarchy.edgeCost(edge));
+        }
+    }
+
+    private static void relax(SearchState side, int from, int to, double tentativeG) {
+        if (!side.isClosed(to) && tentativeG < side.getG(to)) {
+            side.visit(to, tentativeG, tentativeG, from);
+            side.getOpenSet().insertOrDecrease(to, tentativeG);
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package Algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Incremental planner based on D* Lite (Koenig and Likhachev).
+ * It searches backward from the goal and keeps g/rhs values between calls to replan(), so
+ * after cells are blocked or unblocked, or the start moves along the path, only the part of
+ * the search affected by the change is repaired instead of searching again from zero.
+ *
+ * The planner registers itself as a GraphListener to learn which cells changed. Changes to
+ * teleportation links, the wrap-around flag or the goal reset it, and so does a single batch of
+ * changes touching more than a quarter of the grid, where starting over is cheaper. While the
+ * teleport cost is 0 every change resets it, since the repair needs positive edge costs.
+ * Like Graph itself, it is not thread-safe.
+ */
+public class DStarLite implements GraphListener {
+    private final Graph graph;
+    private final int width, height;
+    private final double[] g; // Cost-to-goal estimate of each cell
+    private final double[] rhs; // One-step lookahead of g, based on the successors' g values
+    private final KeyQueue queue; // Inconsistent cells (g != rhs), ordered by their two-part key
+    private HeuristicProvider heuristics; // Wall-free estimate, valid for every blocked/unblocked state
+    private TeleportSources teleportSources; // Incoming teleportation links per cell
+    private int start = -1, goal = -1; // Current start and goal cell indices
+    private int last; // Start cell when km was last updated
+    private double km; // Key modifier: sum of heuristic distances the start has moved
+    private int[] changedCells = new int[16]; // Cells blocked or unblocked since the last replan()
+    private int changedCount;
+    private boolean needsReset = true;
+    private int nodesSearched; // Cells expanded by the last replan()
+    private final int[] predecessors = new int[4]; // Grid neighbors of the cell being processed
+    private double bestLookahead; // Minimum found by the successor visitor
+    private int probeTarget; // Target searched for by the cost probe
+    private double probeCost; // Cheapest edge cost found by the cost probe
+    private final NeighborVisitor lookahead = (neighbor, cost) -> {
+        double value = cost + DStarLite.this.g[neighbor];
+        if (value < bestLookahead) {
+            bestLookahead = value;
+        }
+    };
+    private final NeighborVisitor costProbe = (neighbor, cost) -> {
+        if (neighbor == probeTarget && cost < probeCost) {
+            probeCost = cost;
+        }
+    };
+
+    /**
+     * Constructor for DStarLite.
+     * Registers the planner as a listener on the graph; call close() to unregister it.
+     *
+     * @param graph The graph to plan on.
+     */
+    public DStarLite(Graph graph) {
+        this.graph = graph;
+        this.width = graph.getWidth();
+        this.height = graph.getHeight();
+        this.g = new double[width * height];
+        this.rhs = new double[width * height];
+        this.queue = new KeyQueue(width * height);
+        graph.addGraphListener(this);
+    }
+
+    /**
+     * Gets the graph this planner is attached to.
+     *
+     * @return The graph.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Moves the start, for example as the agent walks along the path.
+     * The search is reused: only the key modifier changes.
+     *
+     * @param cell The new start cell index.
+     */
+    public void setStart(int cell) {
+        start = cell;
+    }
+
+    /**
+     * Sets the goal. A different goal resets the planner, since every g value depends on it.
+     *
+     * @param cell The goal cell index.
+     */
+    public void setGoal(int cell) {
+        if (cell != goal) {
+            goal = cell;
+            needsReset = true;
+        }
+    }
+
+    /**
+     * Records a blocked or unblocked cell, or a changed cell cost, to be repaired on the next
+     * replan(). A cell cheaper than the heuristic's step cost resets the planner instead, and so
+     * does any change while teleports are free: the repair assumes positive edge costs, and the
+     * two ends of a zero-cost link would keep each other's outdated g values alive.
+     */
+    @Override
+    public void cellChanged(int x, int y, boolean blocked) {
+        if (needsReset) {
+            return;
+        }
+        if (changedCount >= g.length / 4 || graph.getCellCost(x, y) < heuristics.getStepCost()
+                || graph.getTeleportCost() == 0) {
+            needsReset = true; // Bulk edit, a cell the heuristic would overestimate, or free teleports: start over
+            changedCount = 0;
+            return;
+        }
+        if (changedCount == changedCells.length) {
+            changedCells = Arrays.copyOf(changedCells, changedCount * 2);
+        }
+        changedCells[changedCount++] = y * width + x;
+    }
+
+    /**
+     * Resets the planner on graph-wide changes.
+     */
+    @Override
+    public void graphChanged() {
+        needsReset = true;
+        changedCount = 0;
+    }
+
+    /**
+     * Unregisters the planner from its graph.
+     */
+    public void close() {
+        graph.removeGraphListener(this);
+    }
+
+    /**
+     * Brings the search up to date with the current start, goal and grid, and extracts the path.
+     *
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    public int[] replan() {
+        if (start < 0 || goal < 0) {
+            throw new IllegalStateException("Start and goal must be set before planning");
+        }
+        nodesSearched = 0;
+        if (needsReset) {
+            initialize();
+        } else if (changedCount > 0) {
+            km += heuristics.estimate(last, start);
+            last = start;
+            for (int i = 0; i < changedCount; i++) {
+                repairAround(changedCells[i]);
+            }
+            changedCount = 0;
+        }
+        computeShortestPath();
+        return extractPath();
+    }
+
+    /**
+     * Gets the number of cells expanded by the last replan().
+     *
+     * @return The number of expanded cells.
+     */
+    public int getNodesSearched() {
+        return nodesSearched;
+    }
+
+    /**
+     * Starts the search over: every cell unknown, only the goal queued.
+     */
+    private void initialize() {
+        heuristics = graph.compile().heuristics();
+        teleportSources = graph.getTeleportSources();
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        Arrays.fill(rhs, Double.POSITIVE_INFINITY);
+        queue.clear();
+        km = 0;
+        last = start;
+        changedCount = 0;
+        needsReset = false;
+        rhs[goal] = 0;
+        queue.insertOrUpdate(goal, heuristics.estimate(start, goal), 0);
+    }
+
+    /**
+     * Updates the cells whose outgoing edges changed when a cell was blocked or unblocked: the
+     * cell itself and every cell with an edge into it.
+     *
+     * @param cell The changed cell index.
+     */
+    private void repairAround(int cell) {
+        updateLookahead(cell);
+        int count = gridNeighbors(cell);
+        for (int i = 0; i < count; i++) {
+            updateLookahead(predecessors[i]);
+        }
+        for (int i = teleportSources.start(cell); i < teleportSources.end(cell); i++) {
+            updateLookahead(teleportSources.source(i));
+        }
+    }
+
+    /**
+     * Recomputes rhs of a cell from its successors and requeues it if it became inconsistent.
+     */
+    private void updateLookahead(int cell) {
+        if (cell != goal) {
+            rhs[cell] = minLookahead(cell);
+        }
+        updateVertex(cell);
+    }
+
+    /**
+     * Expands inconsistent cells until the start is consistent and no queued key is smaller
+     * than the start's key.
+     */
+    private void computeShortestPath() {
+        while (!queue.isEmpty()
+                && (compareKeys(queue.peekKey1(), queue.peekKey2(), key1(start), key2(start)) < 0
+                        || rhs[start] > g[start])) {
+            int u = queue.peek();
+            double oldKey1 = queue.peekKey1();
+            double oldKey2 = queue.peekKey2();
+            double newKey1 = key1(u);
+            double newKey2 = key2(u);
+            nodesSearched++;
+            if (compareKeys(oldKey1, oldKey2, newKey1, newKey2) < 0) {
+                queue.insertOrUpdate(u, newKey1, newKey2); // Key is stale since the start moved
+            } else if (g[u] > rhs[u]) {
+                // Overconsistent: settle u and propagate the improvement to its predecessors
+                g[u] = rhs[u];
+                queue.remove(u);
+                int count = predecessorsOf(u);
+                for (int i = 0; i < count; i++) {
+                    int s = predecessors[i];
+                    if (s != goal) {
+                        rhs[s] = Math.min(rhs[s], edgeCost(s, u) + g[u]);
+                    }
+                    updateVertex(s);
+                }
+                forEachTeleportSource(u, true, 0);
+            } else {
+                // Underconsistent: raise u and let every cell that relied on it look again
+                double oldG = g[u];
+                g[u] = Double.POSITIVE_INFINITY;
+                int count = predecessorsOf(u);
+                for (int i = 0; i < count; i++) {
+                    int s = predecessors[i];
+                    if (rhs[s] == edgeCost(s, u) + oldG) {
+                        updateLookahead(s);
+                    } else {
+                        updateVertex(s);
+                    }
+                }
+                forEachTeleportSource(u, false, oldG);
+                updateLookahead(u);
+            }
+        }
+    }
+
+    /**
+     * Applies the predecessor step of computeShortestPath() to the teleportation sources of u.
+     *
+     * @param u        The cell being expanded.
+     * @param improved True if g(u) was lowered, false if it was raised.
+     * @param oldG     The previous g value of u, when it was raised.
+     */
+    private void forEachTeleportSource(int u, boolean improved, double oldG) {
+        if (graph.isBlocked(u % width, u / width)) {
+            return;
+        }
+        for (int i = teleportSources.start(u); i < teleportSources.end(u); i++) {
+            int s = teleportSources.source(i);
+            double cost = edgeCost(s, u);
+            if (cost == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            if (improved) {
+                if (s != goal) {
+                    rhs[s] = Math.min(rhs[s], cost + g[u]);
+                }
+                updateVertex(s);
+            } else if (rhs[s] == cost + oldG) {
+                updateLookahead(s);
+            } else {
+                updateVertex(s);
+            }
+        }
+    }
+
+    /**
+     * Queues a cell if it is inconsistent and removes it from the queue otherwise.
+     */
+    private void updateVertex(int cell) {
+        if (g[cell] != rhs[cell]) {
+            queue.insertOrUpdate(cell, key1(cell), key2(cell));
+        } else if (queue.contains(cell)) {
+            queue.remove(cell);
+        }
+    }
+
+    private double key1(int cell) {
+        return Math.min(g[cell], rhs[cell]) + heuristics.estimate(start, cell) + km;
+    }
+
+    private double key2(int cell) {
+        return Math.min(g[cell], rhs[cell]);
+    }
+
+    private static int compareKeys(double a1, double a2, double b1, double b2) {
+        if (a1 != b1) {
+            return a1 < b1 ? -1 : 1;
+        }
+        return Double.compare(a2, b2);
+    }
+
+    /**
+     * Gets min over successors s' of c(cell, s') + g(s').
+     */
+    private double minLookahead(int cell) {
+        if (graph.isBlocked(cell % width, cell / width)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        bestLookahead = Double.POSITIVE_INFINITY;
+        graph.forEachNeighbor(cell, lookahead);
+        return bestLookahead;
+    }
+
+    /**
+     * Gets the cost of the cheapest edge from one cell to another.
+     *
+     * @return The edge cost, or positive infinity if there is no such edge.
+     */
+    private double edgeCost(int from, int to) {
+        if (graph.isBlocked(from % width, from / width)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        probeTarget = to;
+        probeCost = Double.POSITIVE_INFINITY;
+        graph.forEachNeighbor(from, costProbe);
+        return probeCost;
+    }
+
+    /**
+     * Collects the free grid neighbors of a free cell; with 4-connected moves these are exactly
+     * its grid predecessors. Teleportation predecessors are handled separately.
+     *
+     * @param cell The cell index.
+     * @return The number of predecessors written to the predecessors array.
+     */
+    private int predecessorsOf(int cell) {
+        if (graph.isBlocked(cell % width, cell / width)) {
+            return 0;
+        }
+        int count = gridNeighbors(cell);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int s = predecessors[i];
+            if (!graph.isBlocked(s % width, s / width)) {
+                predecessors[kept++] = s;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Collects the grid neighbors of a cell, with wrap-around, whether blocked or not.
+     *
+     * @param cell The cell index.
+     * @return The number of neighbors written to the predecessors array.
+     */
+    private int gridNeighbors(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        int count = 0;
+        count = addNeighbor(x, y + 1, count);
+        count = addNeighbor(x + 1, y, count);
+        count = addNeighbor(x, y - 1, count);
+        count = addNeighbor(x - 1, y, count);
+        return count;
+    }
+
+    private int addNeighbor(int x, int y, int count) {
+        if (graph.isWrapAroundEnabled()) {
+            x = (x + width) % width;
+            y = (y + height) % height;
+        } else if (x < 0 || x >= width || y < 0 || y >= height) {
+            return count;
+        }
+        predecessors[count] = y * width + x;
+        return count + 1;
+    }
+
+    /**
+     * Follows the cheapest c + g successor from the start to the goal, breaking ties by the
+     * smaller g.
+     *
+     * @return The cell indices from start to goal, or null if the goal is unreachable.
+     */
+    private int[] extractPath() {
+        if (rhs[start] == Double.POSITIVE_INFINITY) {
+            return null; // The start itself may stay unsettled; its lookahead is the path cost
+        }
+        int[] path = new int[16];
+        int length = 0;
+        int current = start;
+        path[length++] = current;
+        while (current != goal) {
+            if (length > g.length) {
+                return null; // Cannot happen with consistent g values; guards against a cycle
+            }
+            int next = -1;
+            double best = Double.POSITIVE_INFINITY;
+            int count = gridNeighbors(current);
+            for (int i = 0; i <= count; i++) {
+                int s = i < count ? predecessors[i] : graph.getTeleportTarget(current);
+                if (s < 0) {
+                    continue;
+                }
+                double value = edgeCost(current, s) + g[s];
+                // On a tie prefer the successor closer to the goal, or a zero-cost teleport could
+                // send the path back and forth between its two ends
+                if (value < best || (value == best && next >= 0 && g[s] < g[next])) {
+                    best = value;
+                    next = s;
+                }
+            }
+            if (next < 0) {
+                return null;
+            }
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = next;
+            current = next;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Indexed binary min-heap ordered lexicographically by a two-part key, as D* Lite needs.
+     */
+    private static final class KeyQueue {
+        private final int[] heap; // Cells in heap order
+        private final int[] position; // Heap position of each cell, or -1
+        private final double[] key1, key2; // Key of each queued cell
+        private int size;
+
+        KeyQueue(int capacity) {
+            heap = new int[capacity];
+            position = new int[capacity];
+            key1 = new double[capacity];
+            key2 = new double[capacity];
+            Arrays.fill(position, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int cell) {
+            return position[cell] >= 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        double peekKey1() {
+            return key1[heap[0]];
+        }
+
+        double peekKey2() {
+            return key2[heap[0]];
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = -1;
+            }
+            size = 0;
+        }
+
+        void insertOrUpdate(int cell, double k1, double k2) {
+            if (position[cell] < 0) {
+                heap[size] = cell;
+                position[cell] = size++;
+            }
+            key1[cell] = k1;
+            key2[cell] = k2;
+            int i = position[cell];
+            siftUp(i);
+            siftDown(position[cell]);
+        }
+
+        void remove(int cell) {
+            int i = position[cell];
+            position[cell] = -1;
+            int lastCell = heap[--size];
+            if (i == size) {
+                return;
+            }
+            heap[i] = lastCell;
+            position[lastCell] = i;
+            siftUp(i);
+            siftDown(position[lastCell]);
+        }
+
+        private boolean less(int a, int b) {
+            return compareKeys(key1[a], key2[a], key1[b], key2[b]) < 0;
+        }
+
+        private void siftUp(int i) {
+            int cell = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(cell, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                position[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = cell;
+            position[cell] = i;
+        }
+
+        private void siftDown(int i) {
+            int cell = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], cell)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                position[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = cell;
+            position[cell] = i;
+        }
+    }
+}
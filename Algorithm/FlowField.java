@@ -0,0 +1,546 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Flow field toward a single goal, for crowds of units sharing a destination.
+ * One reverse search from the goal (over the reverse graph, so wrap-around and one-way
+ * teleportation links are followed correctly) gives every cell its distance to the goal and
+ * the direction of its first step, packed into four bits per cell. A unit then moves with
+ * next(cell) in O(1) instead of running its own search.
+ *
+ * On uniform-cost grids the field is built with a breadth-first search, level by level; on large
+ * grids the cells of each level are expanded in parallel. Weighted grids run Dijkstra.
+ *
+ * The field listens to its graph. Blocking, unblocking or re-costing cells only repairs the cells
+ * whose route to the goal changes: the cells routed through a changed cell are cleared and
+ * re-seeded from their neighbors, and a Dijkstra pass spreads the new distances. Changes are
+ * applied on the next query; changes to teleportation links or wrap-around, and batches touching
+ * more than a quarter of the grid, rebuild the field. Like Graph itself, it is not thread-safe.
+ */
+public class FlowField implements GraphListener {
+    /** Direction of cells that have no step: the goal, and blocked or unreachable cells. */
+    public static final int NONE = 0;
+    /** Step to (x, y + 1). */
+    public static final int UP = 1;
+    /** Step to (x + 1, y). */
+    public static final int RIGHT = 2;
+    /** Step to (x, y - 1). */
+    public static final int DOWN = 3;
+    /** Step to (x - 1, y). */
+    public static final int LEFT = 4;
+    /** Step through the cell's teleportation link. */
+    public static final int TELEPORT = 5;
+    /** Grids with at least this many cells expand BFS levels in parallel. */
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+    private static final int MIN_CHUNK = 1024; // Smallest share of a BFS level handed to one task
+
+    private final Graph graph;
+    private final int width, height;
+    private final float[] distance; // Cost from each cell to the goal, or positive infinity
+    private final byte[] directions; // Two cells per byte: even cells in the low four bits
+    private final IndexedMinHeap heap; // Open set of Dijkstra builds and repairs
+    private TeleportSources teleportSources; // Incoming teleportation links per cell
+    private int goal;
+    private int[] changedCells = new int[16]; // Cells changed since the last refresh
+    private int changedCount;
+    private boolean needsRebuild = true;
+    private int[] stack = new int[16]; // Work list of the subtree walk
+    private final int[] neighbors = new int[4]; // Grid neighbors of the cell being processed
+    private int probeTarget; // Target searched for by the cost probe
+    private double probeCost; // Cheapest edge cost found by the cost probe
+    private final NeighborVisitor costProbe = (neighbor, cost) -> {
+        if (neighbor == FlowField.this.probeTarget && cost < probeCost) {
+            probeCost = cost;
+        }
+    };
+    private int seedCell; // Cell whose best successor the seeder is looking for
+    private double seedDistance; // Best distance found by the seeder
+    private int seedDirection; // Direction of the best successor
+    private final NeighborVisitor seeder = (neighbor, cost) -> {
+        double value = cost + FlowField.this.distance[neighbor];
+        if (value < seedDistance) {
+            seedDistance = value;
+            seedDirection = directionOf(seedCell, neighbor);
+        }
+    };
+
+    /**
+     * Constructor for FlowField. Builds the field and registers it as a listener on the graph;
+     * call close() to unregister it.
+     *
+     * @param graph The graph the units move on.
+     * @param goal  The goal cell index.
+     */
+    public FlowField(Graph graph, int goal) {
+        this.graph = graph;
+        this.width = graph.getWidth();
+        this.height = graph.getHeight();
+        this.distance = new float[width * height];
+        this.directions = new byte[(width * height + 1) / 2];
+        this.heap = new IndexedMinHeap(width * height);
+        this.goal = goal;
+        graph.addGraphListener(this);
+        refresh();
+    }
+
+    /**
+     * Moves the goal and rebuilds the field.
+     *
+     * @param cell The new goal cell index.
+     */
+    public void setGoal(int cell) {
+        if (cell != goal) {
+            goal = cell;
+            needsRebuild = true;
+        }
+    }
+
+    /**
+     * Gets the goal cell index.
+     *
+     * @return The goal.
+     */
+    public int getGoal() {
+        return goal;
+    }
+
+    /**
+     * Gets the next cell on a shortest path from a cell to the goal.
+     *
+     * @param cell The cell index.
+     * @return The next cell index, or -1 at the goal and on blocked or unreachable cells.
+     */
+    public int next(int cell) {
+        refresh();
+        int direction = direction(cell);
+        return direction == TELEPORT ? graph.getTeleportTarget(cell) : stepTarget(cell, direction);
+    }
+
+    /**
+     * Gets the direction of the first step from a cell toward the goal.
+     *
+     * @param cell The cell index.
+     * @return One of NONE, UP, RIGHT, DOWN, LEFT or TELEPORT.
+     */
+    public int getDirection(int cell) {
+        refresh();
+        return direction(cell);
+    }
+
+    /**
+     * Gets the cost of the cheapest path from a cell to the goal.
+     *
+     * @param cell The cell index.
+     * @return The distance, or positive infinity if the goal cannot be reached.
+     */
+    public double getDistance(int cell) {
+        refresh();
+        return distance[cell];
+    }
+
+    /**
+     * Follows the field from a cell to the goal.
+     *
+     * @param cell The starting cell index.
+     * @return The cell indices from the cell to the goal, or null if the goal cannot be reached.
+     */
+    public int[] pathFrom(int cell) {
+        refresh();
+        if (distance[cell] == Float.POSITIVE_INFINITY) {
+            return null;
+        }
+        int[] path = new int[16];
+        int length = 0;
+        for (int c = cell; c >= 0; c = next(c)) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = c;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Gets a copy of the packed directions: cell c is in byte c / 2, in the low four bits for
+     * even c and the high four bits for odd c.
+     *
+     * @return The packed direction array.
+     */
+    public byte[] getPackedDirections() {
+        refresh();
+        return directions.clone();
+    }
+
+    /**
+     * Applies the changes made to the graph since the last query. Queries call this themselves.
+     */
+    public void refresh() {
+        if (needsRebuild) {
+            rebuild();
+        } else if (changedCount > 0) {
+            repair();
+        }
+    }
+
+    /**
+     * Records a blocked, unblocked or re-costed cell, to be repaired on the next query.
+     */
+    @Override
+    public void cellChanged(int x, int y, boolean blocked) {
+        int cell = y * width + x;
+        if (needsRebuild) {
+            return;
+        }
+        if (cell == goal || changedCount >= distance.length / 4) {
+            needsRebuild = true; // Every distance depends on the goal, and bulk edits are cheaper to redo
+            changedCount = 0;
+            return;
+        }
+        if (changedCount == changedCells.length) {
+            changedCells = Arrays.copyOf(changedCells, changedCount * 2);
+        }
+        changedCells[changedCount++] = cell;
+    }
+
+    /**
+     * Rebuilds the field on graph-wide changes.
+     */
+    @Override
+    public void graphChanged() {
+        needsRebuild = true;
+        changedCount = 0;
+    }
+
+    /**
+     * Unregisters the field from its graph.
+     */
+    public void close() {
+        graph.removeGraphListener(this);
+    }
+
+    /**
+     * Estimates the memory used by the arrays of this field.
+     *
+     * @return The approximate size in bytes.
+     */
+    public long getMemoryFootprint() {
+        return 4L * distance.length + directions.length;
+    }
+
+    /**
+     * Computes every distance and direction from scratch.
+     */
+    private void rebuild() {
+        needsRebuild = false;
+        changedCount = 0;
+        teleportSources = graph.getTeleportSources();
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        Arrays.fill(directions, (byte) 0);
+        if (graph.isBlocked(goal % width, goal / width)) {
+            return;
+        }
+        CompiledGraph forward = graph.compile();
+        CompiledGraph reverse = forward.reversed();
+        boolean parallel = distance.length >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1;
+        if (forward.hasUniformCosts()) {
+            breadthFirst(reverse, parallel);
+        } else {
+            dijkstra(reverse);
+        }
+        int chunks = parallel ? (directions.length + MIN_CHUNK - 1) / MIN_CHUNK : 1;
+        IntStream tasks = IntStream.range(0, chunks);
+        (parallel ? tasks.parallel() : tasks).forEach(chunk -> {
+            int[] successors = new int[forward.getMaxDegree()];
+            double[] costs = new double[successors.length];
+            int from = (int) ((long) directions.length * chunk / chunks);
+            int to = (int) ((long) directions.length * (chunk + 1) / chunks);
+            for (int pair = from; pair < to; pair++) {
+                directions[pair] = (byte) (bestDirection(forward, 2 * pair, successors, costs)
+                        | (2 * pair + 1 < distance.length
+                                ? bestDirection(forward, 2 * pair + 1, successors, costs) << 4
+                                : 0));
+            }
+        });
+    }
+
+    /**
+     * Breadth-first search from the goal over the reverse graph, one level at a time. The cells
+     * of a level are split into chunks that claim their predecessors with compare-and-set, so
+     * every cell is labeled by exactly one task.
+     */
+    private void breadthFirst(CompiledGraph reverse, boolean parallel) {
+        AtomicIntegerArray level = new AtomicIntegerArray(distance.length); // Level + 1, or 0 if unseen
+        level.set(goal, 1);
+        int[] frontier = { goal };
+        int depth = 1;
+        while (frontier.length > 0) {
+            int[] current = frontier;
+            int nextLevel = depth + 1;
+            int chunks = parallel ? Math.max(1, Math.min(current.length / MIN_CHUNK,
+                    4 * Runtime.getRuntime().availableProcessors())) : 1;
+            int[][] found = new int[chunks][];
+            IntStream tasks = IntStream.range(0, chunks);
+            (chunks > 1 ? tasks.parallel() : tasks).forEach(chunk -> {
+                int from = (int) ((long) current.length * chunk / chunks);
+                int to = (int) ((long) current.length * (chunk + 1) / chunks);
+                int[] local = new int[Math.max(16, to - from)];
+                int[] predecessors = new int[reverse.getMaxDegree()];
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    for (int j = 0, degree = reverse.neighbors(current[i], predecessors, null); j < degree; j++) {
+                        int predecessor = predecessors[j];
+                        if (level.get(predecessor) == 0 && level.compareAndSet(predecessor, 0, nextLevel)) {
+                            if (count == local.length) {
+                                local = Arrays.copyOf(local, count * 2);
+                            }
+                            local[count++] = predecessor;
+                        }
+                    }
+                }
+                found[chunk] = Arrays.copyOf(local, count);
+            });
+            int total = 0;
+            for (int[] part : found) {
+                total += part.length;
+            }
+            frontier = new int[total];
+            total = 0;
+            for (int[] part : found) {
+                System.arraycopy(part, 0, frontier, total, part.length);
+                total += part.length;
+            }
+            depth = nextLevel;
+        }
+        for (int cell = 0; cell < distance.length; cell++) {
+            int value = level.get(cell);
+            if (value > 0) {
+                distance[cell] = value - 1;
+            }
+        }
+    }
+
+    /**
+     * Dijkstra from the goal over the reverse graph, for weighted grids.
+     */
+    private void dijkstra(CompiledGraph reverse) {
+        heap.clear();
+        distance[goal] = 0;
+        heap.insert(goal, 0);
+        int[] predecessors = new int[reverse.getMaxDegree()];
+        double[] costs = new double[predecessors.length];
+        while (!heap.isEmpty()) {
+            double g = heap.peekKey();
+            int cell = heap.poll();
+            for (int i = 0, count = reverse.neighbors(cell, predecessors, costs); i < count; i++) {
+                int predecessor = predecessors[i];
+                double tentative = g + costs[i];
+                if (tentative < distance[predecessor]) {
+                    distance[predecessor] = (float) tentative;
+                    heap.insertOrDecrease(predecessor, tentative);
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks the direction of the successor with the smallest edge cost plus distance, using the
+     * caller's arrays for the successors.
+     */
+    private int bestDirection(CompiledGraph forward, int cell, int[] successors, double[] costs) {
+        if (cell == goal || distance[cell] == Float.POSITIVE_INFINITY) {
+            return NONE;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        int bestTarget = -1;
+        for (int i = 0, count = forward.neighbors(cell, successors, costs); i < count; i++) {
+            int target = successors[i];
+            double value = costs[i] + distance[target];
+            if (value < best) {
+                best = value;
+                bestTarget = target;
+            }
+        }
+        return directionOf(cell, bestTarget);
+    }
+
+    /**
+     * Repairs the field after single-cell changes: clears every cell routed through a changed
+     * cell, seeds the cleared cells from their remaining successors, and runs Dijkstra from the
+     * seeds. Relaxing a predecessor that already had a distance only helps when a cell became
+     * cheaper to reach, which covers unblocked cells and lowered costs.
+     */
+    private void repair() {
+        heap.clear();
+        int cleared = 0;
+        for (int i = 0; i < changedCount; i++) {
+            cleared = clearSubtree(changedCells[i], cleared);
+        }
+        changedCount = 0;
+        // The stack now holds every cleared cell
+        for (int i = 0; i < cleared; i++) {
+            int cell = stack[i];
+            if (graph.isBlocked(cell % width, cell / width)) {
+                continue;
+            }
+            seedCell = cell;
+            seedDistance = Double.POSITIVE_INFINITY;
+            graph.forEachNeighbor(cell, seeder);
+            if (seedDistance < Double.POSITIVE_INFINITY) {
+                distance[cell] = (float) seedDistance;
+                setDirection(cell, seedDirection);
+                heap.insertOrDecrease(cell, seedDistance);
+            }
+        }
+        while (!heap.isEmpty()) {
+            double g = heap.peekKey();
+            int cell = heap.poll();
+            int count = gridNeighbors(cell);
+            for (int i = 0; i < count; i++) {
+                relax(neighbors[i], cell, g);
+            }
+            for (int i = teleportSources.start(cell); i < teleportSources.end(cell); i++) {
+                relax(teleportSources.source(i), cell, g);
+            }
+        }
+    }
+
+    /**
+     * Clears a changed cell and every cell whose direction leads through it, pushing them onto
+     * the stack after the cells already cleared.
+     *
+     * @param cell    The changed cell index.
+     * @param cleared The number of cells already on the stack.
+     * @return The new number of cells on the stack.
+     */
+    private int clearSubtree(int cell, int cleared) {
+        int top = push(cell, cleared); // A cell cleared twice is only seeded twice, which is harmless
+        for (int i = cleared; i < top; i++) {
+            int current = stack[i];
+            distance[current] = Float.POSITIVE_INFINITY;
+            setDirection(current, NONE);
+            int count = gridNeighbors(current);
+            for (int j = 0; j < count; j++) {
+                int predecessor = neighbors[j];
+                if (distance[predecessor] != Float.POSITIVE_INFINITY && stepsInto(predecessor, current)) {
+                    distance[predecessor] = Float.POSITIVE_INFINITY; // Marks it as queued
+                    top = push(predecessor, top);
+                }
+            }
+            for (int j = teleportSources.start(current); j < teleportSources.end(current); j++) {
+                int predecessor = teleportSources.source(j);
+                if (distance[predecessor] != Float.POSITIVE_INFINITY && direction(predecessor) == TELEPORT) {
+                    distance[predecessor] = Float.POSITIVE_INFINITY;
+                    top = push(predecessor, top);
+                }
+            }
+        }
+        return top;
+    }
+
+    private int push(int cell, int top) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top] = cell;
+        return top + 1;
+    }
+
+    /**
+     * Offers a path through a settled cell to one of its predecessors.
+     */
+    private void relax(int predecessor, int cell, double g) {
+        if (predecessor == goal || graph.isBlocked(predecessor % width, predecessor / width)) {
+            return;
+        }
+        probeTarget = cell;
+        probeCost = Double.POSITIVE_INFINITY;
+        graph.forEachNeighbor(predecessor, costProbe);
+        double tentative = g + probeCost;
+        if (tentative < distance[predecessor]) {
+            distance[predecessor] = (float) tentative;
+            setDirection(predecessor, directionOf(predecessor, cell));
+            heap.insertOrDecrease(predecessor, tentative);
+        }
+    }
+
+    /**
+     * Checks if the stored direction of a cell is a grid step into another cell.
+     */
+    private boolean stepsInto(int cell, int target) {
+        int direction = direction(cell);
+        return direction != NONE && direction != TELEPORT && stepTarget(cell, direction) == target;
+    }
+
+    /**
+     * Gets the direction code of the edge from a cell to a neighbor.
+     */
+    private int directionOf(int cell, int target) {
+        for (int direction = UP; direction <= LEFT; direction++) {
+            if (stepTarget(cell, direction) == target) {
+                return direction;
+            }
+        }
+        return TELEPORT;
+    }
+
+    /**
+     * Gets the cell one grid step away in a direction, with wrap-around if enabled.
+     *
+     * @return The target cell index, or -1 if the step leaves the grid or the direction is NONE.
+     */
+    private int stepTarget(int cell, int direction) {
+        int x = cell % width;
+        int y = cell / width;
+        switch (direction) {
+            case UP:
+                y++;
+                break;
+            case RIGHT:
+                x++;
+                break;
+            case DOWN:
+                y--;
+                break;
+            case LEFT:
+                x--;
+                break;
+            default:
+                return -1;
+        }
+        if (graph.isWrapAroundEnabled()) {
+            x = (x + width) % width;
+            y = (y + height) % height;
+        } else if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return y * width + x;
+    }
+
+    private int direction(int cell) {
+        return (directions[cell >> 1] >> ((cell & 1) << 2)) & 15;
+    }
+
+    private void setDirection(int cell, int direction) {
+        int shift = (cell & 1) << 2;
+        directions[cell >> 1] = (byte) ((directions[cell >> 1] & ~(15 << shift)) | (direction << shift));
+    }
+
+    /**
+     * Collects the grid neighbors of a cell, with wrap-around, whether blocked or not.
+     *
+     * @return The number of neighbors written to the neighbors array.
+     */
+    private int gridNeighbors(int cell) {
+        int count = 0;
+        for (int direction = UP; direction <= LEFT; direction++) {
+            int target = stepTarget(cell, direction);
+            if (target >= 0) {
+                neighbors[count++] = target;
+            }
+        }
+        return count;
+    }
+}
@@ -1,6 +1,7 @@
 package Algorithm;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Graph class representing a grid with nodes, blocked cells, teleportation
@@ -9,11 +10,25 @@ import java.util.*;
  * neighbors with teleportation and wrap-around capabilities.
  */
 public class Graph {
+    private static final AtomicLong VERSIONS = new AtomicLong(); // Source of versions, shared by all graphs
+
     private int width, height;
-    private boolean[][] blocked;
+    private long[] blocked; // Bit c is set if cell c is blocked, 64 cells per long
     private Node start, goal;
     private Map<Node, Node> teleportationLinks; // Teleportation nodes
+    private final CellMap teleports = new CellMap(16); // Teleportation destination by source cell index
     private boolean wrapAroundEnabled = false; // Wrap-around flag
+    private float[] cellCosts; // Cost of entering each cell, or null while every cell costs 1
+    private boolean blockedShared, costsShared; // Set while a compiled form uses the array; it is copied before the next change
+    private float teleportCost = 1; // Cost of a teleportation edge
+    private float wrapAroundPenalty = 0; // Added to the cost of steps that wrap around an edge
+    private SearchState searchState; // Reused by searches on this graph, created on first use
+    private CompiledGraph compiled; // Cached compact form, dropped whenever the grid changes
+    private TeleportSources teleportSources; // Incoming links per cell, dropped whenever the grid changes
+    private final List<GraphListener> listeners = new ArrayList<>(); // Notified after every change
+    private HierarchicalGraph hierarchy; // Cluster abstraction kept up to date, created on first use
+    private ConnectivityIndex connectivity; // Component labels kept up to date, created on first use
+    private long version = VERSIONS.incrementAndGet(); // Changes on every modification, see getVersion()
 
     /**
      * Node class representing a point in the grid with coordinates and cost
@@ -22,13 +37,14 @@ public class Graph {
     public Graph(int width, int height) {
         this.width = width;
         this.height = height;
-        this.blocked = new boolean[width][height];
+        this.blocked = new long[(width * height + 63) >>> 6];
         this.teleportationLinks = new HashMap<>();
     }
 
     /**
      * Generates a random grid with specified dimensions, blocked cells,
      * teleportation nodes, and a random seed.
+     * This is generator version GridGenerator.LEGACY; see GridGenerator for the parallel one.
      *
      * @param width           Width of the grid.
      * @param height          Height of the grid.
@@ -71,15 +87,16 @@ public class Graph {
         // If odd number, last node is left unlinked
 
         // Random start and goal (not blocked or teleport)
+        Set<Node> teleportSet = new HashSet<>(teleportNodes); // Constant-time lookups for the retry loops
         Node start, goal;
         do {
             start = new Node(rand.nextInt(width), rand.nextInt(height));
-        } while (isBlocked(start.x, start.y) || teleportNodes.contains(start));
+        } while (isBlocked(start.x, start.y) || teleportSet.contains(start));
         setStart(start);
 
         do {
             goal = new Node(rand.nextInt(width), rand.nextInt(height));
-        } while (isBlocked(goal.x, goal.y) || teleportNodes.contains(goal) || goal.equals(start));
+        } while (isBlocked(goal.x, goal.y) || teleportSet.contains(goal) || goal.equals(start));
         setGoal(goal);
     }
 
@@ -126,7 +143,12 @@ public class Graph {
      * @param y Y-coordinate of the node to block.
      */
     public void blockNode(int x, int y) {
-        blocked[x][y] = true;
+        setBlocked(getIndex(x, y), true);
+        compiled = null;
+        version = VERSIONS.incrementAndGet();
+        for (GraphListener listener : listeners) {
+            listener.cellChanged(x, y, true);
+        }
     }
 
     /**
@@ -137,7 +159,23 @@ public class Graph {
      * @return True if the node is blocked, false otherwise.
      */
     public boolean isBlocked(int x, int y) {
-        return blocked[x][y];
+        int cell = getIndex(x, y);
+        return (blocked[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Sets the blocked bit of a cell, copying the bitset first if a compiled form shares it.
+     */
+    private void setBlocked(int cell, boolean value) {
+        if (blockedShared) {
+            blocked = blocked.clone();
+            blockedShared = false;
+        }
+        if (value) {
+            blocked[cell >>> 6] |= 1L << cell;
+        } else {
+            blocked[cell >>> 6] &= ~(1L << cell);
+        }
     }
 
     /**
@@ -148,6 +186,7 @@ public class Graph {
      */
     public void setWrapAroundEnabled(boolean enabled) {
         this.wrapAroundEnabled = enabled;
+        graphChanged();
     }
 
     /**
@@ -167,6 +206,8 @@ public class Graph {
      */
     public void addTeleportationLink(Node from, Node to) {
         teleportationLinks.put(from, to);
+        teleports.put(getIndex(from.x, from.y), getIndex(to.x, to.y));
+        graphChanged();
     }
 
     /**
@@ -188,45 +229,312 @@ public class Graph {
         return teleportationLinks.get(node);
     }
 
+    /**
+     * Gets all teleportation links as a read-only map from source to destination.
+     * 
+     * @return The teleportation links.
+     */
+    public Map<Node, Node> getTeleportationLinks() {
+        return Collections.unmodifiableMap(teleportationLinks);
+    }
+
+    /**
+     * Gets the compiled form of this graph used by the search algorithms.
+     * The result is cached until the grid is changed, so repeated searches compile it once.
+     * 
+     * @return The compiled graph.
+     */
+    public CompiledGraph compile() {
+        if (compiled == null) {
+            compiled = CompiledGraph.compile(this);
+            if (hierarchy != null) {
+                hierarchy.update(compiled); // Rebuilds only the clusters touched since the last compile
+                compiled.adoptHierarchy(hierarchy);
+            }
+            if (connectivity != null) {
+                compiled.adoptConnectivity(connectivity);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets the teleportation links indexed by destination, for planners that walk edges backwards.
+     * The index is cached until the next change that may affect the links.
+     * 
+     * @return The incoming teleportation links of every cell.
+     */
+    TeleportSources getTeleportSources() {
+        if (teleportSources == null) {
+            teleportSources = TeleportSources.build(teleports);
+        }
+        return teleportSources;
+    }
+
+    /**
+     * Gets the connected-component index of this graph, kept up to date as the grid changes:
+     * unblocked cells are merged in right away, other changes rebuild it on its next query.
+     * It is created on first use and handed to every later compiled form of the graph.
+     * 
+     * @return The connectivity index.
+     */
+    public ConnectivityIndex getConnectivity() {
+        if (connectivity == null) {
+            connectivity = new ConnectivityIndex(this);
+            if (compiled != null) {
+                compiled.adoptConnectivity(connectivity);
+            }
+        }
+        return connectivity;
+    }
+
+    /**
+     * Gets the cluster abstraction used by HPA*, kept up to date as cells are blocked and
+     * unblocked: after a change only the affected clusters are rebuilt, on the next compile().
+     * It is created on first use.
+     * 
+     * @return The hierarchical abstraction of this graph.
+     */
+    public HierarchicalGraph getHierarchy() {
+        if (hierarchy == null) {
+            hierarchy = compile().hierarchy();
+            addGraphListener(hierarchy);
+        }
+        compile();
+        return hierarchy;
+    }
+
     /**
      * Gets the neighbors of a node, including wrap-around and teleportation links.
+     * Kept for compatibility; search code should use forEachNeighbor(), which does not allocate.
      * 
      * @param node The node for which to find neighbors.
      * @return A list of neighboring nodes.
      */
     public List<Node> getNeighbors(Node node) {
         List<Node> neighbors = new ArrayList<>();
+        forEachNeighbor(getIndex(node.x, node.y),
+                (neighbor, cost) -> neighbors.add(new Node(neighbor % width, neighbor / width)));
+        return neighbors;
+    }
+
+    /**
+     * Enumerates the neighbors of a cell, including wrap-around and teleportation links,
+     * without allocating.
+     * Neighbors are visited in the order up, right, down, left, then the teleportation
+     * destination; blocked cells are skipped.
+     * 
+     * @param cell    The cell index (y * width + x) whose neighbors to visit.
+     * @param visitor The callback receiving each neighbor's cell index and edge cost.
+     */
+    public void forEachNeighbor(int cell, NeighborVisitor visitor) {
+        int x = cell % width;
+        int y = cell / width;
 
         // Standard directions (Up, Right, Down, Left)
-        int[][] directions = { { 0, 1 }, { 1, 0 }, { 0, -1 }, { -1, 0 } };
-
-        for (int[] dir : directions) {
-            int newX = node.x + dir[0];
-            int newY = node.y + dir[1];
-
-            if (wrapAroundEnabled) {
-                // Wrap-around logic
-                if (newX < 0)
-                    newX = width - 1;
-                if (newX >= width)
-                    newX = 0;
-                if (newY < 0)
-                    newY = height - 1;
-                if (newY >= height)
-                    newY = 0;
-            }
+        visitStep(x, y + 1, visitor);
+        visitStep(x + 1, y, visitor);
+        visitStep(x, y - 1, visitor);
+        visitStep(x - 1, y, visitor);
 
-            if (isValid(newX, newY)) {
-                neighbors.add(new Node(newX, newY));
-            }
+        // **Check if the node has a teleportation destination**
+        int target = teleports.get(cell);
+        if (target >= 0 && !isBlocked(target % width, target / width)) {
+            visitor.visit(target, teleportCost);
         }
+    }
 
-        // **Check if the node has a teleportation destination**
-        if (isTeleportationNode(node)) {
-            neighbors.add(getTeleportDestination(node));
+    /**
+     * Visits a single step target, applying wrap-around if enabled.
+     * A step costs the cost of the cell it enters, plus the wrap-around penalty if it wraps.
+     * 
+     * @param newX    X-coordinate of the step target.
+     * @param newY    Y-coordinate of the step target.
+     * @param visitor The callback to notify if the target is valid.
+     */
+    private void visitStep(int newX, int newY, NeighborVisitor visitor) {
+        float penalty = 0;
+        if (wrapAroundEnabled) {
+            // Wrap-around logic
+            if (newX < 0 || newX >= width || newY < 0 || newY >= height)
+                penalty = wrapAroundPenalty;
+            if (newX < 0)
+                newX = width - 1;
+            if (newX >= width)
+                newX = 0;
+            if (newY < 0)
+                newY = height - 1;
+            if (newY >= height)
+                newY = 0;
         }
 
-        return neighbors;
+        if (isValid(newX, newY)) {
+            int cell = getIndex(newX, newY);
+            visitor.visit(cell, cellCosts == null ? 1 + penalty : cellCosts[cell] + penalty);
+        }
+    }
+
+    /**
+     * Sets the cost of entering a cell, for terrain-weighted maps. Every cell costs 1 until a
+     * different cost is set.
+     * 
+     * @param x    X-coordinate of the cell.
+     * @param y    Y-coordinate of the cell.
+     * @param cost The cost of stepping onto the cell; must be positive and finite.
+     */
+    public void setCellCost(int x, int y, double cost) {
+        if (!(cost > 0) || Double.isInfinite(cost)) {
+            throw new IllegalArgumentException("Cell cost must be positive and finite: " + cost);
+        }
+        int cell = getIndex(x, y);
+        if (getCellCost(x, y) == (float) cost) {
+            return;
+        }
+        if (cellCosts == null) {
+            cellCosts = new float[width * height];
+            Arrays.fill(cellCosts, 1);
+        } else if (costsShared) {
+            cellCosts = cellCosts.clone();
+            costsShared = false;
+        }
+        cellCosts[cell] = (float) cost;
+        compiled = null;
+        version = VERSIONS.incrementAndGet();
+        for (GraphListener listener : listeners) {
+            listener.cellChanged(x, y, isBlocked(x, y));
+        }
+    }
+
+    /**
+     * Gets the cost of entering a cell.
+     * 
+     * @param x X-coordinate of the cell.
+     * @param y Y-coordinate of the cell.
+     * @return The cell cost, 1 unless set otherwise.
+     */
+    public double getCellCost(int x, int y) {
+        return cellCosts == null ? 1 : cellCosts[getIndex(x, y)];
+    }
+
+    /**
+     * Checks if any cell has a cost other than 1.
+     * 
+     * @return True if a cost layer is set, false otherwise.
+     */
+    public boolean hasCostLayer() {
+        return cellCosts != null;
+    }
+
+    /**
+     * Gets the lowest cell cost, blocked cells included, so it stays a lower bound on every
+     * step as cells are unblocked.
+     * 
+     * @return The minimum cell cost.
+     */
+    public double getMinCellCost() {
+        if (cellCosts == null) {
+            return 1;
+        }
+        float min = Float.POSITIVE_INFINITY;
+        for (float cost : cellCosts) {
+            min = Math.min(min, cost);
+        }
+        return min;
+    }
+
+    /**
+     * Resets every cell cost to 1.
+     */
+    public void clearCellCosts() {
+        if (cellCosts != null) {
+            cellCosts = null;
+            graphChanged();
+        }
+    }
+
+    /**
+     * Sets the cost of using a teleportation link.
+     * 
+     * @param cost The cost of a teleportation edge; must be non-negative and finite.
+     */
+    public void setTeleportCost(double cost) {
+        if (!(cost >= 0) || Double.isInfinite(cost)) {
+            throw new IllegalArgumentException("Teleport cost must be non-negative and finite: " + cost);
+        }
+        teleportCost = (float) cost;
+        graphChanged();
+    }
+
+    /**
+     * Gets the cost of using a teleportation link.
+     * 
+     * @return The teleportation edge cost, 1 by default.
+     */
+    public double getTeleportCost() {
+        return teleportCost;
+    }
+
+    /**
+     * Sets the extra cost of a step that wraps around the edge of the grid.
+     * 
+     * @param penalty The penalty added to wrapping steps; must be non-negative and finite.
+     */
+    public void setWrapAroundPenalty(double penalty) {
+        if (!(penalty >= 0) || Double.isInfinite(penalty)) {
+            throw new IllegalArgumentException("Wrap-around penalty must be non-negative and finite: " + penalty);
+        }
+        wrapAroundPenalty = (float) penalty;
+        graphChanged();
+    }
+
+    /**
+     * Gets the extra cost of a step that wraps around the edge of the grid.
+     * 
+     * @return The wrap-around penalty, 0 by default.
+     */
+    public double getWrapAroundPenalty() {
+        return wrapAroundPenalty;
+    }
+
+    /**
+     * Gets the teleportation destination of a cell, by cell index.
+     * 
+     * @param cell The cell index.
+     * @return The destination cell index, or -1 if the cell has no teleportation link.
+     */
+    public int getTeleportTarget(int cell) {
+        return teleports.get(cell);
+    }
+
+    /**
+     * Gets the teleportation links by source cell index, for compiling. The table is the
+     * graph's own and must not be changed.
+     * 
+     * @return The destination of each source cell.
+     */
+    CellMap getTeleports() {
+        return teleports;
+    }
+
+    /**
+     * Gets the blocked-cell bitset for a compiled form to share. The graph copies it before
+     * its next change, so the array the caller gets never changes.
+     * 
+     * @return One bit per cell index, set if the cell is blocked.
+     */
+    long[] shareBlocked() {
+        blockedShared = true;
+        return blocked;
+    }
+
+    /**
+     * Gets the cost layer for a compiled form to share, like shareBlocked().
+     * 
+     * @return The cost of entering each cell, or null if every cell costs 1.
+     */
+    float[] shareCellCosts() {
+        costsShared = cellCosts != null;
+        return cellCosts;
     }
 
     /**
@@ -259,6 +567,32 @@ public class Graph {
         return height;
     }
 
+    /**
+     * Gets the cell index of the specified coordinates.
+     * Cell indices are used by the search state arrays and run from 0 to width * height - 1.
+     * 
+     * @param x X-coordinate of the cell.
+     * @param y Y-coordinate of the cell.
+     * @return The cell index (y * width + x).
+     */
+    public int getIndex(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Gets the search state shared by searches on this graph.
+     * It is created on first use and reused afterwards, so repeated queries skip
+     * both the allocation and the O(V) clear.
+     * 
+     * @return The search state for this graph.
+     */
+    public SearchState getSearchState() {
+        if (searchState == null) {
+            searchState = new SearchState(width * height);
+        }
+        return searchState;
+    }
+
     /**
      * Unblocks a node at the specified coordinates.
      * 
@@ -266,7 +600,12 @@ public class Graph {
      * @param y Y-coordinate of the node to unblock.
      */
     public void unblockNode(int x, int y) {
-        blocked[x][y] = false;
+        setBlocked(getIndex(x, y), false);
+        compiled = null;
+        version = VERSIONS.incrementAndGet();
+        for (GraphListener listener : listeners) {
+            listener.cellChanged(x, y, false);
+        }
     }
 
     /**
@@ -279,30 +618,150 @@ public class Graph {
     }
 
     /**
-     * Clears the grid, removing all blocked nodes, teleportation links, and
-     * resetting start and goal nodes.
+     * Clears the grid, removing all blocked nodes, teleportation links and cell costs, and
+     * resetting start and goal nodes. The teleport cost and wrap-around penalty are kept.
      */
     public void clearGrid() {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                blocked[x][y] = false;
-            }
-        }
+        blocked = new long[blocked.length];
+        blockedShared = false;
         teleportationLinks.clear();
+        teleports.clear();
+        cellCosts = null;
         start = null;
         goal = null;
+        graphChanged();
     }
 
     /**
-     * Gets the cost of moving from one node to another.
-     * This can be modified to account for different terrain costs or other factors.
+     * Replaces the blocked cells and teleportation links in bulk, for generators; cell costs,
+     * start and goal are cleared, and the listeners are told once.
+     * 
+     * @param blockedBits One bit per cell index, 64 cells per long; the graph keeps the array.
+     * @param links       Cell pairs to link both ways: links[2i] with links[2i + 1].
+     */
+    void loadGenerated(long[] blockedBits, int[] links) {
+        blocked = blockedBits;
+        blockedShared = false;
+        teleportationLinks.clear();
+        teleports.clear();
+        for (int i = 0; i + 1 < links.length; i += 2) {
+            int a = links[i];
+            int b = links[i + 1];
+            Node nodeA = new Node(a % width, a / width);
+            Node nodeB = new Node(b % width, b / width);
+            teleportationLinks.put(nodeA, nodeB);
+            teleportationLinks.put(nodeB, nodeA);
+            teleports.put(a, b);
+            teleports.put(b, a);
+        }
+        cellCosts = null;
+        start = null;
+        goal = null;
+        graphChanged();
+    }
+
+    /**
+     * Replaces the whole grid with the contents of a map file, telling the listeners once.
+     * 
+     * @param map The map file, with the same width and height as this graph.
+     */
+    void load(MapFile map) {
+        if (map.getWidth() != width || map.getHeight() != height) {
+            throw new IllegalArgumentException("Map is " + map.getWidth() + "x" + map.getHeight() + ", graph is "
+                    + width + "x" + height);
+        }
+        blocked = new long[blocked.length];
+        blockedShared = false;
+        map.copyBlocked(blocked);
+        teleportationLinks.clear();
+        teleports.clear();
+        for (int link = 0; link < map.getTeleportCount(); link++) {
+            int from = map.getTeleportSource(link);
+            int to = map.getTeleportDestination(link);
+            teleportationLinks.put(new Node(from % width, from / width), new Node(to % width, to / width));
+            teleports.put(from, to);
+        }
+        cellCosts = null;
+        if (map.hasCostLayer()) {
+            cellCosts = new float[width * height];
+            map.copyCellCosts(cellCosts);
+        }
+        wrapAroundEnabled = map.isWrapAroundEnabled();
+        teleportCost = (float) map.getTeleportCost();
+        wrapAroundPenalty = (float) map.getWrapAroundPenalty();
+        start = map.getStart();
+        goal = map.getGoal();
+        graphChanged();
+    }
+
+    /**
+     * Takes a new version from the sequence graphs use, for compiled forms made without a Graph.
+     * 
+     * @return A version no graph has had.
+     */
+    static long nextVersion() {
+        return VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Drops the compiled form and tells the listeners that the whole graph may have changed.
+     */
+    private void graphChanged() {
+        compiled = null;
+        teleportSources = null;
+        version = VERSIONS.incrementAndGet();
+        for (GraphListener listener : listeners) {
+            listener.graphChanged();
+        }
+    }
+
+    /**
+     * Gets the version of the grid. It increases whenever a cell is blocked or unblocked, a
+     * cost changes, a teleportation link is added, wrap-around is toggled or the grid is cleared. Versions are
+     * unique across all graphs, so caches can key results by version alone.
+     * 
+     * @return The current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Registers a listener that is notified after every change to the grid.
+     * 
+     * @param listener The listener to add.
+     */
+    public void addGraphListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with addGraphListener().
+     * 
+     * @param listener The listener to remove.
+     */
+    public void removeGraphListener(GraphListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the cost of moving from one node to an adjacent one: the cost of the cell entered,
+     * plus the wrap-around penalty for wrapping steps, or the teleport cost for teleportation.
      * 
      * @param from The starting node.
      * @param to   The destination node.
-     * @return The cost of moving from 'from' to 'to'.
+     * @return The cost of the cheapest edge from 'from' to 'to', or positive infinity if
+     *         there is none.
      */
     public double getCost(Node from, Node to) {
-        return 1.0; // Uniform cost for all edges
+        int target = getIndex(to.x, to.y);
+        double[] cheapest = { Double.POSITIVE_INFINITY };
+        forEachNeighbor(getIndex(from.x, from.y), (neighbor, cost) -> {
+            if (neighbor == target && cost < cheapest[0]) {
+                cheapest[0] = cost;
+            }
+        });
+        return cheapest[0];
     }
 
     /**
@@ -311,13 +770,9 @@ public class Graph {
      * @return The count of non-blocked vertices.
      */
     public int getVertexCount() {
-        int count = 0;
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (!blocked[x][y]) {
-                    count++;
-                }
-            }
+        int count = width * height;
+        for (long word : blocked) {
+            count -= Long.bitCount(word);
         }
         return count;
     }
@@ -330,17 +785,14 @@ public class Graph {
      * @return The total number of edges in the graph.
      */
     public int getEdgeCount() {
-        int edgeCount = 0;
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (!blocked[x][y]) {
-                    Node node = new Node(x, y);
-                    List<Node> neighbors = getNeighbors(node);
-                    edgeCount += neighbors.size();
-                }
+        int[] edgeCount = new int[1];
+        NeighborVisitor counter = (neighbor, cost) -> edgeCount[0]++;
+        for (int cell = 0; cell < width * height; cell++) {
+            if (!isBlocked(cell % width, cell / width)) {
+                forEachNeighbor(cell, counter);
             }
         }
-        return edgeCount;
+        return edgeCount[0];
     }
 
 }
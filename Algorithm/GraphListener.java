@@ -0,0 +1,22 @@
+package Algorithm;
+
+/**
+ * Listener for changes to a Graph, so that data derived from it (abstractions, incremental
+ * planners, flow fields) can update only what a change affects instead of starting over.
+ */
+public interface GraphListener {
+    /**
+     * Called after a single cell was blocked or unblocked, or its cost changed.
+     *
+     * @param x       X-coordinate of the cell.
+     * @param y       Y-coordinate of the cell.
+     * @param blocked True if the cell is blocked, false if it is free.
+     */
+    void cellChanged(int x, int y, boolean blocked);
+
+    /**
+     * Called after a change that may affect the whole graph: teleportation links, the
+     * wrap-around flag, the teleport cost or wrap-around penalty, or clearing the grid or its costs.
+     */
+    void graphChanged();
+}
@@ -0,0 +1,145 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Versioned random grid generators.
+ * - LEGACY (1) is Graph.generateRandomGrid(): one java.util.Random fills the grid cell by cell,
+ *   so composite seeds written before generator versions existed still reproduce their grid.
+ * - CHUNKED (2) splits the cells into chunks of CHUNK_CELLS, each with its own SplittableRandom
+ *   seeded from the master seed in chunk order, and fills the chunks in parallel. Teleport
+ *   candidates are shuffled by sorting them on a hash of the seed and their cell, which also
+ *   runs in parallel, and consecutive candidates are linked both ways. Nothing depends on
+ *   which thread fills which chunk, so the grid is the same for any number of threads.
+ */
+public final class GridGenerator {
+    /** The original serial generator. */
+    public static final int LEGACY = 1;
+    /** The chunked parallel generator. */
+    public static final int CHUNKED = 2;
+    /** Cells per chunk; a multiple of 64 so every chunk owns whole words of the blocked bitset. */
+    public static final int CHUNK_CELLS = 1 << 16;
+
+    private GridGenerator() {
+    }
+
+    /**
+     * Fills a graph with random blocked cells and teleportation links and picks a random start
+     * and goal, using the given generator version.
+     *
+     * @param graph           The graph to fill; its size is the grid size.
+     * @param blockedPercent  Fraction of cells to be blocked.
+     * @param teleportPercent Fraction of cells to be teleportation nodes.
+     * @param seed            Random seed for reproducibility.
+     * @param version         The generator version, LEGACY or CHUNKED.
+     */
+    public static void generate(Graph graph, double blockedPercent, double teleportPercent, long seed, int version) {
+        switch (version) {
+            case LEGACY:
+                graph.generateRandomGrid(graph.getWidth(), graph.getHeight(), blockedPercent, teleportPercent, seed);
+                break;
+            case CHUNKED:
+                generateChunked(graph, blockedPercent, teleportPercent, seed);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown generator version: " + version);
+        }
+    }
+
+    private static void generateChunked(Graph graph, double blockedPercent, double teleportPercent, long seed) {
+        int cellCount = graph.getWidth() * graph.getHeight();
+        int chunks = (cellCount + CHUNK_CELLS - 1) / CHUNK_CELLS;
+        SplittableRandom master = new SplittableRandom(seed);
+        long[] chunkSeeds = new long[chunks];
+        for (int i = 0; i < chunks; i++) {
+            chunkSeeds[i] = master.nextLong();
+        }
+
+        long[] blocked = new long[(cellCount + 63) / 64];
+        int[][] candidates = new int[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom random = new SplittableRandom(chunkSeeds[chunk]);
+            int from = chunk * CHUNK_CELLS;
+            int to = Math.min(cellCount, from + CHUNK_CELLS);
+            int[] found = new int[16];
+            int count = 0;
+            for (int cell = from; cell < to; cell++) {
+                double r = random.nextDouble();
+                if (r < blockedPercent) {
+                    blocked[cell >>> 6] |= 1L << (cell & 63);
+                } else if (r < blockedPercent + teleportPercent) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = cell;
+                }
+            }
+            candidates[chunk] = Arrays.copyOf(found, count);
+        });
+
+        // Shuffle by sorting on (hash, cell); the cell in the low bits breaks ties
+        int total = 0;
+        for (int[] part : candidates) {
+            total += part.length;
+        }
+        long[] keys = new long[total];
+        int next = 0;
+        for (int[] part : candidates) {
+            for (int cell : part) {
+                keys[next++] = (mix(seed ^ (cell * 0x9e3779b97f4a7c15L)) & 0xffffffff00000000L) | cell;
+            }
+        }
+        Arrays.parallelSort(keys);
+        int[] teleports = new int[total & ~1]; // With an odd count the last candidate stays unlinked
+        for (int i = 0; i < teleports.length; i++) {
+            teleports[i] = (int) keys[i];
+        }
+        graph.loadGenerated(blocked, teleports);
+
+        int start = pickFreeCell(graph, master, -1);
+        int goal = pickFreeCell(graph, master, start);
+        int width = graph.getWidth();
+        graph.setStart(start < 0 ? null : new Node(start % width, start / width));
+        graph.setGoal(goal < 0 ? null : new Node(goal % width, goal / width));
+    }
+
+    /**
+     * Picks a random cell that is neither blocked nor a teleportation endpoint. After a bounded
+     * number of random tries it scans for one, so crowded grids still terminate.
+     *
+     * @return The cell index, or -1 if there is none.
+     */
+    private static int pickFreeCell(Graph graph, SplittableRandom random, int excluded) {
+        int cellCount = graph.getWidth() * graph.getHeight();
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            int cell = random.nextInt(cellCount);
+            if (isFree(graph, cell, excluded)) {
+                return cell;
+            }
+        }
+        int offset = random.nextInt(cellCount);
+        for (int i = 0; i < cellCount; i++) {
+            int cell = (offset + i) % cellCount;
+            if (isFree(graph, cell, excluded)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isFree(Graph graph, int cell, int excluded) {
+        int width = graph.getWidth();
+        return cell != excluded && !graph.isBlocked(cell % width, cell / width) && graph.getTeleportTarget(cell) < 0;
+    }
+
+    /**
+     * SplitMix64 finalizer, shared with ProceduralGraph's cell hash.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
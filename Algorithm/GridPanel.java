@@ -2,13 +2,22 @@ package Algorithm;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * GridPanel is a JPanel that visualizes a grid-based graph and animates a path through it.
  * It allows interaction to set start and goal nodes, and provides methods to animate the path.
+ * Everything that only changes with the grid, the path or the goal is composited once into a
+ * cached terrain image, which is rebuilt when the graph version, the cell size or the path
+ * changes; a paint copies the damaged part of that image and draws the start and the animation
+ * marker on top. Each cell of the terrain is one of a few pre-scaled tiles (ground, path, wall,
+ * goal, teleport), so a rebuild copies pixels instead of scaling images per cell. Animation steps
+ * repaint only the cells the marker leaves and enters.
  */
 public class GridPanel extends JPanel {
     private Graph graph; // The graph to visualize
@@ -21,6 +30,13 @@ public class GridPanel extends JPanel {
     private static final int PREFERRED_DRAW_SIZE = 800; // pixels
     private boolean settingStart = true; // true: set start, false: set end
     private GridVisualizer visualizer; // Reference to the visualizer for interaction
+    private BitSet pathCells = new BitSet(); // Cell indices (y * width + x) on the path
+    private BufferedImage terrain; // Cached grid without the start and the animation marker
+    private long terrainVersion; // Graph version the terrain was drawn for
+    private int terrainCellSize; // Cell size the terrain and tiles were drawn for
+    private Node terrainGoal; // Goal the terrain was drawn with
+    private final Map<Integer, int[]> tiles = new HashMap<>(); // Tile pixels by TILE_* flags
+    private static final int TILE_PATH = 1, TILE_BLOCKED = 2, TILE_GOAL = 4, TILE_TELEPORT = 8;
 
     /**
      * Constructor for GridPanel.
@@ -33,6 +49,7 @@ public class GridPanel extends JPanel {
         this.graph = graph;
         this.path = path;
         this.visualizer = visualizer;
+        updatePathCells();
 
         images = new HashMap<>();
         images.put("blocked", new ImageIcon("./resources/wall1.png").getImage());
@@ -79,7 +96,7 @@ public class GridPanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         int cellSize = getCellSize(); // Get the dynamic cell size
-        drawGrid(g, cellSize);
+        g.drawImage(getTerrain(cellSize), 0, 0, null); // Only the clip, the damaged region, is copied
         drawStartAndGoal(g, cellSize);
 
         // Always draw the magenta circle, whether paused or not
@@ -89,43 +106,113 @@ public class GridPanel extends JPanel {
     }
 
     /**
-     * Draws the grid, including the path and blocked nodes.
+     * Gets the terrain image for a cell size, redrawing what has changed since it was drawn:
+     * everything after a grid change, a new path or a new cell size, only the old and new goal
+     * cells after a goal change.
      *
-     * @param g        The Graphics object to draw on.
      * @param cellSize The size of each cell in the grid.
+     * @return The terrain image.
      */
-    private void drawGrid(Graphics g, int cellSize) {
-        for (int y = 0; y < graph.getHeight(); y++) {
-            for (int x = 0; x < graph.getWidth(); x++) {
-                Node node = new Node(x, y);
-
-                g.drawImage(images.get("default"), x * cellSize, y * cellSize, cellSize, cellSize, this);
-
-                // Draw the path image if the node is part of the path
-                if (path != null && path.contains(node)) {
-                    g.drawImage(images.get("path"), x * cellSize, y * cellSize, cellSize, cellSize, this);
+    private BufferedImage getTerrain(int cellSize) {
+        int width = graph.getWidth();
+        int height = graph.getHeight();
+        if (cellSize != terrainCellSize) {
+            tiles.clear();
+            terrain = null;
+        }
+        if (terrain == null || terrain.getWidth() != width * cellSize || terrain.getHeight() != height * cellSize
+                || terrainVersion != graph.getVersion()) {
+            terrain = new BufferedImage(width * cellSize, height * cellSize, BufferedImage.TYPE_INT_RGB);
+            terrainVersion = graph.getVersion();
+            terrainCellSize = cellSize;
+            terrainGoal = graph.getGoal();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    drawCell(x, y, cellSize);
                 }
+            }
+        } else if (!Objects.equals(terrainGoal, graph.getGoal())) {
+            Node oldGoal = terrainGoal;
+            terrainGoal = graph.getGoal();
+            if (oldGoal != null) {
+                drawCell(oldGoal.x, oldGoal.y, cellSize);
+            }
+            if (terrainGoal != null) {
+                drawCell(terrainGoal.x, terrainGoal.y, cellSize);
+            }
+        }
+        return terrain;
+    }
 
-                // Draw blocked nodes in red
-                if (graph.isBlocked(x, y)) {
-                    g.drawImage(images.get("blocked"), x * cellSize, y * cellSize, cellSize, cellSize, this);
-                } else if (node.equals(graph.getGoal())) {
-                    g.drawImage(images.get("goal"), x * cellSize, y * cellSize, cellSize, cellSize, this);
-                }
+    /**
+     * Draws one cell of the terrain by copying the pixels of its tile.
+     *
+     * @param x        X-coordinate of the cell.
+     * @param y        Y-coordinate of the cell.
+     * @param cellSize The size of each cell in the grid.
+     */
+    private void drawCell(int x, int y, int cellSize) {
+        int flags = 0;
+        if (pathCells.get(y * graph.getWidth() + x)) {
+            flags |= TILE_PATH;
+        }
+        if (graph.isBlocked(x, y)) {
+            flags |= TILE_BLOCKED;
+        } else if (terrainGoal != null && terrainGoal.x == x && terrainGoal.y == y) {
+            flags |= TILE_GOAL;
+        }
+        if (graph.getTeleportTarget(graph.getIndex(x, y)) >= 0) {
+            flags |= TILE_TELEPORT;
+        }
+        int[] pixels = tiles.get(flags);
+        if (pixels == null) {
+            pixels = drawTile(flags, cellSize);
+            tiles.put(flags, pixels);
+        }
+        terrain.getRaster().setDataElements(x * cellSize, y * cellSize, cellSize, cellSize, pixels);
+    }
 
-                // Draw teleportation nodes with a blue circle
-                if (graph.isTeleportationNode(node)) {
-                    g.setColor(Color.orange);
-                    int ovalMargin = Math.max(2, cellSize / 5);
-                    g.fillOval(x * cellSize + ovalMargin, y * cellSize + ovalMargin, cellSize - 2 * ovalMargin,
-                            cellSize - 2 * ovalMargin);
-                }
+    /**
+     * Draws a tile the way a cell with the given flags looks: the ground, the path image if the
+     * cell is on the path, the wall or the goal on top, an orange circle for teleportation nodes
+     * and the grid lines.
+     *
+     * @param flags    TILE_* flags of the cell.
+     * @param cellSize The size of each cell in the grid.
+     * @return The tile pixels, row by row.
+     */
+    private int[] drawTile(int flags, int cellSize) {
+        BufferedImage tile = new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_RGB);
+        Graphics g = tile.getGraphics();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, cellSize, cellSize);
+        g.drawImage(images.get("default"), 0, 0, cellSize, cellSize, this);
+
+        // Draw the path image if the node is part of the path
+        if ((flags & TILE_PATH) != 0) {
+            g.drawImage(images.get("path"), 0, 0, cellSize, cellSize, this);
+        }
 
-                // Draw the grid lines
-                g.setColor(Color.BLACK);
-                g.drawRect(x * cellSize, y * cellSize, cellSize, cellSize);
-            }
+        // Draw blocked nodes in red
+        if ((flags & TILE_BLOCKED) != 0) {
+            g.drawImage(images.get("blocked"), 0, 0, cellSize, cellSize, this);
+        } else if ((flags & TILE_GOAL) != 0) {
+            g.drawImage(images.get("goal"), 0, 0, cellSize, cellSize, this);
+        }
+
+        // Draw teleportation nodes with a blue circle
+        if ((flags & TILE_TELEPORT) != 0) {
+            g.setColor(Color.orange);
+            int ovalMargin = Math.max(2, cellSize / 5);
+            g.fillOval(ovalMargin, ovalMargin, cellSize - 2 * ovalMargin, cellSize - 2 * ovalMargin);
         }
+
+        // Draw the grid lines; the right and bottom ones belong to the next cell
+        g.setColor(Color.BLACK);
+        g.drawLine(0, 0, cellSize - 1, 0);
+        g.drawLine(0, 0, 0, cellSize - 1);
+        g.dispose();
+        return (int[]) tile.getRaster().getDataElements(0, 0, cellSize, cellSize, null);
     }
 
     /**
@@ -161,8 +248,7 @@ public class GridPanel extends JPanel {
      */
     public void animate() {
         if (animationIndex < path.size() && !isPaused) {
-            animationIndex++;
-            repaint(); // Trigger paintComponent to redraw the panel
+            moveAnimation(animationIndex + 1);
         }
     }
 
@@ -172,8 +258,7 @@ public class GridPanel extends JPanel {
      */
     public void stepBackward() {
         if (animationIndex > 0) {
-            animationIndex--;
-            repaint();
+            moveAnimation(animationIndex - 1);
         }
     }
 
@@ -183,8 +268,7 @@ public class GridPanel extends JPanel {
      */
     public void stepForward() {
         if (animationIndex < path.size()) {
-            animationIndex++;
-            repaint();
+            moveAnimation(animationIndex + 1);
         }
     }
 
@@ -193,9 +277,34 @@ public class GridPanel extends JPanel {
      * This method sets the animation index to 0 and repaints the panel.
      */
     public void resetAnimation() {
-        animationIndex = 0;
         isPaused = true; // Ensure that the animation isn't paused after reset
-        repaint();
+        moveAnimation(0);
+    }
+
+    /**
+     * Moves the animation marker to a path index and repaints only the cells it leaves and
+     * enters; everything else on screen is unchanged.
+     *
+     * @param index The new animation index.
+     */
+    private void moveAnimation(int index) {
+        int previous = animationIndex;
+        animationIndex = index;
+        repaintPathCell(previous);
+        repaintPathCell(index);
+    }
+
+    /**
+     * Schedules a repaint of the cell at a path index, if there is one.
+     *
+     * @param index The path index.
+     */
+    private void repaintPathCell(int index) {
+        if (path != null && index >= 0 && index < path.size()) {
+            Node cell = path.get(index);
+            int cellSize = getCellSize();
+            repaint(cell.x * cellSize, cell.y * cellSize, cellSize, cellSize);
+        }
     }
 
     /**
@@ -240,9 +349,24 @@ public class GridPanel extends JPanel {
     public void setPath(List<Node> path) {
         this.path = path;
         this.animationIndex = 0; // Reset animation index
+        updatePathCells();
+        terrain = null; // The path is part of the terrain
         repaint(); // Refresh the grid visualization
     }
 
+    /**
+     * Rebuilds the set of cells on the path, so drawing a cell checks membership in O(1)
+     * instead of searching the path list.
+     */
+    private void updatePathCells() {
+        pathCells = new BitSet(graph.getWidth() * graph.getHeight());
+        if (path != null) {
+            for (Node node : path) {
+                pathCells.set(graph.getIndex(node.x, node.y));
+            }
+        }
+    }
+
     /**
      * Sets the graph for this GridPanel.
      * This method updates the graph and adjusts the preferred size of the panel.
@@ -251,6 +375,8 @@ public class GridPanel extends JPanel {
      */
     public void setGraph(Graph graph) {
         this.graph = graph;
+        updatePathCells();
+        terrain = null;
         setPreferredSize(new Dimension(graph.getWidth() * cellSize, graph.getHeight() * cellSize));
         repaint();
     }
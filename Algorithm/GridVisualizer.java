@@ -2,6 +2,7 @@ package Algorithm;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,6 +26,9 @@ public class GridVisualizer {
     private JLabel pathLengthLabel = new JLabel("Path Length: 0"); // Label to display the length of the path
     private JLabel timeComplexityLabel = new JLabel("Time Complexity: ");
     private JLabel spaceComplexityLabel = new JLabel("Space Complexity: ");
+    private DStarLite planner; // Incremental planner, kept between recalculations of the same graph
+    static final String INCREMENTAL_PLANNER = "D* Lite (incremental)"; // Dropdown entry for the planner
+    private static final String CONTRACTION_HIERARCHIES = "Contraction Hierarchies"; // Shows preprocessing separately
 
     /**
      * Constructor for GridVisualizer.
@@ -70,14 +74,28 @@ public class GridVisualizer {
      */
     void recalculateAndDisplayPath() {
         String algorithm = (String) algorithmDropdown.getSelectedItem();
+        ContractionHierarchy contraction = null;
+        if (CONTRACTION_HIERARCHIES.equals(algorithm)) {
+            contraction = graph.compile().contractionHierarchy(); // Built once per map, reported separately
+        }
         long startTime = System.nanoTime(); // Use nanoTime for better precision
-        AStar aStar = AlgorithmFactory.createAlgorithm(algorithm, graph, graph.getStart(), graph.getGoal());
-        path = aStar.search();
+        int nodesSearched;
+        if (INCREMENTAL_PLANNER.equals(algorithm)) {
+            path = replanIncrementally();
+            nodesSearched = planner.getNodesSearched();
+        } else {
+            AStar aStar = AlgorithmFactory.createAlgorithm(algorithm, graph, graph.getStart(), graph.getGoal());
+            path = aStar.search();
+            nodesSearched = aStar.getNodesSearched();
+        }
         long endTime = System.nanoTime();
         double elapsed = (endTime - startTime) / 1_000_000.0; // Convert to milliseconds with decimals
-        int nodesSearched = aStar.getNodesSearched();
 
         timeLabel.setText(String.format("Time: %.3f ms", elapsed)); // Show 3 decimals
+        if (contraction != null) {
+            timeLabel.setText(String.format("Time: %.3f ms (preprocessing %.0f ms, %.1f MB)", elapsed,
+                    contraction.getPreprocessingTime(), contraction.getMemoryFootprint() / 1e6));
+        }
         nodesLabel.setText("Nodes searched: " + nodesSearched);
 
         int pathLength = (path != null) ? path.size() : 0;
@@ -96,6 +114,35 @@ public class GridVisualizer {
         }
     }
 
+    /**
+     * Plans with the incremental D* Lite planner. The planner stays attached to the graph, so
+     * after start/goal clicks or blocked/unblocked cells only the affected part of the search
+     * is repaired; a new graph gets a new planner.
+     *
+     * @return The path from start to goal, or null if no path exists.
+     */
+    private List<Node> replanIncrementally() {
+        if (planner == null || planner.getGraph() != graph) {
+            if (planner != null) {
+                planner.close();
+            }
+            planner = new DStarLite(graph);
+        }
+        Node start = graph.getStart();
+        Node goal = graph.getGoal();
+        planner.setGoal(graph.getIndex(goal.x, goal.y));
+        planner.setStart(graph.getIndex(start.x, start.y));
+        int[] cells = planner.replan();
+        if (cells == null) {
+            return null;
+        }
+        List<Node> nodes = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            nodes.add(new Node(cell % graph.getWidth(), cell / graph.getWidth()));
+        }
+        return nodes;
+    }
+
     /**
      * Updates the seed field with the current state of the grid, including width,
      * height,
@@ -110,6 +157,7 @@ public class GridVisualizer {
         int height = graph.getHeight();
         double blockedPercent = 0.2, teleportPercent = 0.05;
         long seed = System.currentTimeMillis();
+        int generatorVersion = GridGenerator.LEGACY;
         try {
             String[] parts = seedField.getText().split("-");
             if (parts.length >= 5) {
@@ -117,19 +165,23 @@ public class GridVisualizer {
                 teleportPercent = Double.parseDouble(parts[3]);
                 seed = Long.parseLong(parts[4]);
             }
+            if (parts.length == 10) {
+                // Keep the grid reproducible
+                generatorVersion = CompositeSeed.parse(seedField.getText()).getGeneratorVersion();
+            }
         } catch (Exception ignored) {
         }
         Node start = graph.getStart();
         Node goal = graph.getGoal();
         if (start == null || goal == null)
             return;
-        String compositeSeed = width + "-" + height + "-" + blockedPercent + "-" + teleportPercent + "-" + seed
-                + "-" + start.x + "-" + start.y + "-" + goal.x + "-" + goal.y; // formatting the seed string
+        String compositeSeed = new CompositeSeed(width, height, blockedPercent, teleportPercent, seed, start.x,
+                start.y, goal.x, goal.y, generatorVersion).toString(); // formatting the seed string
         seedField.setText(compositeSeed);
     }
 
     private void showComparisonTable(int width, int height, double blockedPercent, double teleportPercent) {
-        String[] algorithms = { "A* Search", "Greedy Best-First Search", "Dijkstra's Algorithm" };
+        String[] algorithms = AlgorithmFactory.getAlgorithmNames();
         String[] columnNames = { "Seed", "Algorithm", "Time (ms)", "Time Complexity", "Nodes Searched",
                 "Space Complexity", "Path Length" };
         Object[][] data = new Object[algorithms.length * 5][7];
@@ -257,6 +309,60 @@ public class GridVisualizer {
                 spaceLabelStr = formatNumber(spaceComplexity, "V");
                 break;
 
+            case "Bidirectional Dijkstra":
+                timeComplexity = E + V * Math.log(Math.max(V, 1));
+                spaceComplexity = V;
+                timeLabelStr = formatNumber(timeComplexity, "E + V log V");
+                spaceLabelStr = formatNumber(spaceComplexity, "V");
+                break;
+
+            case "Bidirectional A*":
+                branchingFactor = (V == 0) ? 1 : (double) E / V;
+                timeComplexity = 2 * Math.pow(branchingFactor, pathLength / 2.0);
+                spaceComplexity = timeComplexity;
+                timeLabelStr = formatNumber(timeComplexity, "2 b^(d/2)");
+                spaceLabelStr = formatNumber(spaceComplexity, "2 b^(d/2)");
+                break;
+
+            case "Jump Point Search":
+                branchingFactor = (V == 0) ? 1 : (double) E / V;
+                timeComplexity = Math.pow(branchingFactor, pathLength);
+                spaceComplexity = timeComplexity;
+                timeLabelStr = formatNumber(timeComplexity, "b^d (pruned)");
+                spaceLabelStr = formatNumber(spaceComplexity, "b^d (pruned)");
+                break;
+
+            case "A* (ALT)":
+                branchingFactor = (V == 0) ? 1 : (double) E / V;
+                timeComplexity = Math.pow(branchingFactor, pathLength);
+                spaceComplexity = timeComplexity + 2.0 * LandmarkTable.DEFAULT_LANDMARKS * V;
+                timeLabelStr = formatNumber(timeComplexity, "b^d (landmarks)");
+                spaceLabelStr = formatNumber(spaceComplexity, "b^d + 2KV");
+                break;
+
+            case "HPA* (approximate)":
+                double clusterCells = (double) HierarchicalGraph.DEFAULT_CLUSTER_SIZE
+                        * HierarchicalGraph.DEFAULT_CLUSTER_SIZE;
+                timeComplexity = (V / clusterCells) * Math.log(Math.max(V / clusterCells, 1)) + pathLength;
+                spaceComplexity = V / clusterCells + pathLength;
+                timeLabelStr = formatNumber(timeComplexity, "(V/C) log(V/C) + d");
+                spaceLabelStr = formatNumber(spaceComplexity, "V/C + d");
+                break;
+
+            case CONTRACTION_HIERARCHIES:
+                timeComplexity = Math.sqrt(V) * Math.log(Math.max(V, 2));
+                spaceComplexity = V + E;
+                timeLabelStr = formatNumber(timeComplexity, "sqrt(V) log V per query");
+                spaceLabelStr = formatNumber(spaceComplexity, "V + E + shortcuts");
+                break;
+
+            case INCREMENTAL_PLANNER:
+                timeComplexity = E + V * Math.log(Math.max(V, 1));
+                spaceComplexity = V;
+                timeLabelStr = formatNumber(timeComplexity, "E + V log V (first plan)");
+                spaceLabelStr = formatNumber(spaceComplexity, "V");
+                break;
+
             case "Greedy Best-First Search":
                 branchingFactor = (V == 0) ? 1 : (double) E / V;
                 timeComplexity = Math.pow(branchingFactor, pathLength * 0.7);
@@ -383,8 +489,9 @@ public class GridVisualizer {
         });
 
         JLabel algorithmLabel = new JLabel("Algorithm:");
-        String[] algorithms = { "A* Search", "Greedy Best-First Search", "Dijkstra's Algorithm" };
+        String[] algorithms = AlgorithmFactory.getAlgorithmNames();
         algorithmDropdown = new JComboBox<>(algorithms);
+        algorithmDropdown.addItem(INCREMENTAL_PLANNER);
         algorithmDropdown.setMaximumSize(algorithmDropdown.getPreferredSize());
         algorithmDropdown.addActionListener(e -> {
             recalculateAndDisplayPath();
@@ -407,23 +514,12 @@ public class GridVisualizer {
         generateSeedButton.addActionListener(e -> {
             String seedText = seedField.getText().trim();
             try {
-                /**
-                 * Composite seed format:
-                 * width-height-blocked-teleport-seed-startX-startY-endX-endY
-                 * Example: "10-10-0.2-0.05-123456789-0-0-9-9"
-                 */
-                String[] parts = seedText.split("-");
-                if (parts.length != 9)
-                    throw new Exception();
-                int width = Integer.parseInt(parts[0]);
-                int height = Integer.parseInt(parts[1]);
-                double blockedPercent = Double.parseDouble(parts[2]);
-                double teleportPercent = Double.parseDouble(parts[3]);
-                long seed = Long.parseLong(parts[4]);
-                int startX = Math.max(0, Math.min(width - 1, Integer.parseInt(parts[5])));
-                int startY = Math.max(0, Math.min(height - 1, Integer.parseInt(parts[6])));
-                int endX = Math.max(0, Math.min(width - 1, Integer.parseInt(parts[7])));
-                int endY = Math.max(0, Math.min(height - 1, Integer.parseInt(parts[8])));
+                CompositeSeed composite = CompositeSeed.parse(seedText);
+                int width = composite.getWidth();
+                int height = composite.getHeight();
+                double blockedPercent = composite.getBlockedPercent();
+                double teleportPercent = composite.getTeleportPercent();
+                long seed = composite.getSeed();
 
                 // Update controls to match the seed
                 widthSpinner.setValue(width);
@@ -437,11 +533,11 @@ public class GridVisualizer {
                 splitPane.setDividerLocation(gridPanel.getPreferredSize().width + 10);
                 splitPane.revalidate();
                 splitPane.repaint();
-                graph.generateRandomGrid(width, height, blockedPercent, teleportPercent, seed);
+                GridGenerator.generate(graph, blockedPercent, teleportPercent, seed, composite.getGeneratorVersion());
 
                 // Set start and goal, clamped to grid bounds
-                graph.setStart(new Node(startX, startY));
-                graph.setGoal(new Node(endX, endY));
+                graph.setStart(composite.getStart());
+                graph.setGoal(composite.getGoal());
 
                 gridPanel.setPreferredSize(
                         new Dimension(width * gridPanel.getCellSize(), height * gridPanel.getCellSize()));
@@ -449,7 +545,8 @@ public class GridVisualizer {
                 recalculateAndDisplayPath();
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(frame,
-                        "Invalid seed format. Use: width-height-blocked-teleport-seed-startX-startY-endX-endY");
+                        "Invalid seed format. Use: width-height-blocked-teleport-seed-startX-startY-endX-endY"
+                                + "[-generatorVersion]");
             }
         });
 
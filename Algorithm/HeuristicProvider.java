@@ -0,0 +1,138 @@
+package Algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Admissible, consistent heuristic chosen from the topology of a compiled graph.
+ * Plain Manhattan distance overestimates on non-Euclidean grids, so:
+ * - with wrap-around, the base distance is toroidal Manhattan distance;
+ * - with teleportation links, any path that uses a teleport costs at least the distance to the
+ *   nearest teleport endpoint, plus the teleport, plus the distance from the nearest endpoint to
+ *   the goal. Those per-cell distances are precomputed once (ignoring walls), so each estimate
+ *   is O(1): h(a, b) = min(base(a, b), d(a) + 1 + d(b)).
+ * On weighted terrain grid distances are scaled by the cheapest step and the teleport term uses
+ * the teleport cost, so the estimate stays a lower bound.
+ */
+public class HeuristicProvider {
+    private final int width, height;
+    private final boolean wrapAround;
+    private final int[] teleportDistance; // Wall-free distance to the nearest teleport endpoint, or null
+    private final double stepCost; // Lower bound on the cost of a grid step
+    private final double teleportCost; // Cost of a teleportation edge
+
+    /**
+     * Constructor for HeuristicProvider.
+     * Runs one multi-source BFS over the grid if the graph has teleportation links. Links
+     * with a blocked end count too, so the estimate stays admissible when cells are unblocked.
+     *
+     * @param graph The compiled graph to build the heuristic for.
+     */
+    public HeuristicProvider(CompiledGraph graph) {
+        this.width = graph.getWidth();
+        this.height = graph.getHeight();
+        this.wrapAround = graph.isWrapAroundEnabled();
+        this.stepCost = graph.getMinStepCost();
+        this.teleportCost = graph.getTeleportCost();
+        this.teleportDistance = computeTeleportDistances(graph);
+    }
+
+    /**
+     * Estimates the cost of the cheapest path from cell a to cell b without overestimating.
+     *
+     * @param a The first cell index.
+     * @param b The second cell index.
+     * @return A lower bound on the path cost from a to b.
+     */
+    public double estimate(int a, int b) {
+        double distance = baseDistance(a % width, a / width, b % width, b / width) * stepCost;
+        if (teleportDistance != null) {
+            distance = Math.min(distance, (teleportDistance[a] + teleportDistance[b]) * stepCost + teleportCost);
+        }
+        return distance;
+    }
+
+    /**
+     * Checks if every estimate is a whole number, which holds when the step and teleport
+     * costs are whole numbers.
+     *
+     * @return True if estimates are integers, false otherwise.
+     */
+    public boolean isIntegral() {
+        return stepCost == Math.rint(stepCost) && teleportCost == Math.rint(teleportCost);
+    }
+
+    /**
+     * Gets the lower bound on a grid step this heuristic was built with. A cell made cheaper
+     * than this makes the heuristic inadmissible, so incremental users must rebuild it.
+     *
+     * @return The step cost.
+     */
+    public double getStepCost() {
+        return stepCost;
+    }
+
+    /**
+     * Gets the grid distance ignoring walls and teleports: Manhattan, or toroidal Manhattan
+     * with wrap-around.
+     */
+    private int baseDistance(int ax, int ay, int bx, int by) {
+        int dx = Math.abs(ax - bx);
+        int dy = Math.abs(ay - by);
+        if (wrapAround) {
+            dx = Math.min(dx, width - dx);
+            dy = Math.min(dy, height - dy);
+        }
+        return dx + dy;
+    }
+
+    /**
+     * Computes, for every cell, the wall-free grid distance to the nearest teleportation
+     * endpoint with a multi-source BFS. Ignoring walls keeps the result consistent with the
+     * base distance.
+     *
+     * @param graph The compiled graph.
+     * @return The distance per cell index, or null if there are no teleportation endpoints.
+     */
+    private int[] computeTeleportDistances(CompiledGraph graph) {
+        int cellCount = width * height;
+        int[] distance = new int[cellCount];
+        int[] queue = new int[cellCount];
+        int head = 0, tail = 0;
+        Arrays.fill(distance, -1);
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (graph.isTeleportEndpoint(cell)) {
+                distance[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+        if (tail == 0) {
+            return null;
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            int next = distance[cell] + 1;
+            tail = enqueue(x, y + 1, next, distance, queue, tail);
+            tail = enqueue(x + 1, y, next, distance, queue, tail);
+            tail = enqueue(x, y - 1, next, distance, queue, tail);
+            tail = enqueue(x - 1, y, next, distance, queue, tail);
+        }
+        return distance;
+    }
+
+    private int enqueue(int x, int y, int value, int[] distance, int[] queue, int tail) {
+        if (wrapAround) {
+            x = (x + width) % width;
+            y = (y + height) % height;
+        } else if (x < 0 || x >= width || y < 0 || y >= height) {
+            return tail;
+        }
+        int cell = y * width + x;
+        if (distance[cell] < 0) {
+            distance[cell] = value;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+}
@@ -0,0 +1,483 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Cluster abstraction of a grid for hierarchical pathfinding (HPA*).
+ * The grid is split into square clusters. Wherever two neighboring clusters (including across
+ * the wrap-around border) share a run of cells that are free on both sides of their border,
+ * the run is an entrance and one or two of its crossings become abstract nodes. Free
+ * teleportation endpoints are abstract nodes too, so teleportation links become abstract
+ * edges. For every cluster the distances between its abstract nodes, moving only inside the
+ * cluster, are computed once; a query then searches the small abstract graph and refines only
+ * the segments on the chosen path (see HierarchicalSearch).
+ *
+ * As a GraphListener it marks the clusters touched by blockNode()/unblockNode() as dirty, and
+ * update() rebuilds only those: the cell's own cluster, plus a neighboring cluster when the
+ * cell lies on their shared border. Teleportation and wrap-around changes rebuild every cluster.
+ * Queries never modify the abstraction, so several threads can search it concurrently as long
+ * as nobody calls update() at the same time.
+ */
+public class HierarchicalGraph implements GraphListener {
+    /** Default cluster width and height, in cells. */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int MAX_SINGLE_TRANSITION = 5; // Longer entrances get a crossing at each end
+
+    private final int width, height;
+    private final int clusterSize;
+    private final int clustersX, clustersY; // Number of clusters per row and column
+    private final int[][] nodes; // Sorted abstract node cells of each cluster
+    private final float[][] distances; // distances[c][i * n + j]: cost from node i to node j inside cluster c
+    private final boolean[] dirty; // Clusters to rebuild on the next update()
+    private boolean allDirty; // Set by graph-wide changes
+    private CompiledGraph graph; // Graph the clusters were last built from
+
+    /**
+     * Constructor for HierarchicalGraph.
+     * Builds every cluster of the graph, in parallel.
+     *
+     * @param graph       The compiled graph to abstract.
+     * @param clusterSize The width and height of a cluster, in cells.
+     */
+    public HierarchicalGraph(CompiledGraph graph, int clusterSize) {
+        if (clusterSize < 1) {
+            throw new IllegalArgumentException("Cluster size must be positive: " + clusterSize);
+        }
+        this.graph = graph;
+        this.width = graph.getWidth();
+        this.height = graph.getHeight();
+        this.clusterSize = clusterSize;
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clustersY = (height + clusterSize - 1) / clusterSize;
+        this.nodes = new int[clustersX * clustersY][];
+        this.distances = new float[nodes.length][];
+        this.dirty = new boolean[nodes.length];
+        rebuild(IntStream.range(0, nodes.length).toArray());
+    }
+
+    /**
+     * Marks the clusters whose abstraction depends on a cell as dirty.
+     */
+    @Override
+    public synchronized void cellChanged(int x, int y, boolean blocked) {
+        int cx = x / clusterSize;
+        int cy = y / clusterSize;
+        markDirty(cx, cy);
+        if (x % clusterSize == 0) {
+            markDirty(cx - 1, cy); // Left border
+        }
+        if (x % clusterSize == clusterSize - 1 || x == width - 1) {
+            markDirty(cx + 1, cy); // Right border
+        }
+        if (y % clusterSize == 0) {
+            markDirty(cx, cy - 1);
+        }
+        if (y % clusterSize == clusterSize - 1 || y == height - 1) {
+            markDirty(cx, cy + 1);
+        }
+    }
+
+    /**
+     * Marks every cluster as dirty.
+     */
+    @Override
+    public synchronized void graphChanged() {
+        allDirty = true;
+    }
+
+    private void markDirty(int cx, int cy) {
+        cx = Math.floorMod(cx, clustersX); // Neighbors past the grid border only matter with wrap-around,
+        cy = Math.floorMod(cy, clustersY); // and rebuilding them needlessly is harmless
+        dirty[cy * clustersX + cx] = true;
+    }
+
+    /**
+     * Switches to a newer compiled form of the same grid and rebuilds the dirty clusters.
+     *
+     * @param graph The compiled graph, with the same width and height.
+     */
+    public synchronized void update(CompiledGraph graph) {
+        if (graph.getWidth() != width || graph.getHeight() != height) {
+            throw new IllegalArgumentException("Grid size changed from " + width + "x" + height);
+        }
+        this.graph = graph;
+        int[] clusters = IntStream.range(0, nodes.length).filter(c -> allDirty || dirty[c]).toArray();
+        rebuild(clusters);
+        Arrays.fill(dirty, false);
+        allDirty = false;
+    }
+
+    /**
+     * Recomputes the abstract nodes and intra-cluster distances of some clusters, in parallel.
+     *
+     * @param clusters The cluster indices to rebuild.
+     */
+    private void rebuild(int[] clusters) {
+        IntStream.of(clusters).parallel().forEach(cluster -> {
+            LocalSearch search = newLocalSearch();
+            int[] clusterNodes = collectNodes(cluster);
+            int n = clusterNodes.length;
+            float[] clusterDistances = new float[n * n];
+            for (int i = 0; i < n; i++) {
+                search.run(clusterNodes[i], -1);
+                for (int j = 0; j < n; j++) {
+                    clusterDistances[i * n + j] = (float) search.getDistance(clusterNodes[j]);
+                }
+            }
+            nodes[cluster] = clusterNodes;
+            distances[cluster] = clusterDistances;
+        });
+    }
+
+    /**
+     * Collects the abstract nodes of a cluster: its side of the crossings on all four borders
+     * and its free teleportation endpoints.
+     *
+     * @param cluster The cluster index.
+     * @return The sorted, distinct node cells.
+     */
+    private int[] collectNodes(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        int x0 = cx * clusterSize, x1 = Math.min(x0 + clusterSize, width);
+        int y0 = cy * clusterSize, y1 = Math.min(y0 + clusterSize, height);
+        int[] buffer = new int[4 * clusterSize + (x1 - x0) * (y1 - y0)];
+        int count = 0;
+
+        // Every border is scanned from the same side as the neighbor scans it, so both clusters
+        // pick the same crossings
+        if (hasNeighbor(cx, cy, 1, 0)) {
+            count = addCrossings(buffer, count, x1 - 1, y0, x1 % width, y0, 0, 1, y1 - y0, false);
+        }
+        if (hasNeighbor(cx, cy, -1, 0)) {
+            count = addCrossings(buffer, count, (x0 - 1 + width) % width, y0, x0, y0, 0, 1, y1 - y0, true);
+        }
+        if (hasNeighbor(cx, cy, 0, 1)) {
+            count = addCrossings(buffer, count, x0, y1 - 1, x0, y1 % height, 1, 0, x1 - x0, false);
+        }
+        if (hasNeighbor(cx, cy, 0, -1)) {
+            count = addCrossings(buffer, count, x0, (y0 - 1 + height) % height, x0, y0, 1, 0, x1 - x0, true);
+        }
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int cell = y * width + x;
+                if (graph.isTeleportEndpoint(cell) && graph.isPassable(cell)) {
+                    buffer[count++] = cell;
+                }
+            }
+        }
+
+        int[] result = Arrays.copyOf(buffer, count);
+        Arrays.sort(result);
+        return Arrays.stream(result).distinct().toArray();
+    }
+
+    /**
+     * Checks if a cluster has a different cluster next to it in a direction, taking
+     * wrap-around into account.
+     */
+    private boolean hasNeighbor(int cx, int cy, int dx, int dy) {
+        int nx = cx + dx;
+        int ny = cy + dy;
+        if (graph.isWrapAroundEnabled()) {
+            nx = Math.floorMod(nx, clustersX);
+            ny = Math.floorMod(ny, clustersY);
+        }
+        return nx >= 0 && nx < clustersX && ny >= 0 && ny < clustersY && (nx != cx || ny != cy);
+    }
+
+    /**
+     * Finds the entrances along one border and adds the crossing cells on one side of it.
+     * Cell i of side a is (ax + i * stepX, ay + i * stepY), and cell i of side b is next to it
+     * across the border. Entrances of up to MAX_SINGLE_TRANSITION cells get one crossing in the
+     * middle, longer ones get a crossing at each end.
+     *
+     * @return The new number of cells in the buffer.
+     */
+    private int addCrossings(int[] buffer, int count, int ax, int ay, int bx, int by, int stepX, int stepY,
+            int length, boolean sideB) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean open = i < length
+                    && graph.isPassable((ay + i * stepY) * width + ax + i * stepX)
+                    && graph.isPassable((by + i * stepY) * width + bx + i * stepX);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runLength = i - runStart;
+                int[] crossings = runLength <= MAX_SINGLE_TRANSITION
+                        ? new int[] { runStart + runLength / 2 }
+                        : new int[] { runStart, i - 1 };
+                for (int k : crossings) {
+                    int x = (sideB ? bx : ax) + k * stepX;
+                    int y = (sideB ? by : ay) + k * stepY;
+                    buffer[count++] = y * width + x;
+                }
+                runStart = -1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the compiled graph the clusters were last built from.
+     *
+     * @return The compiled graph.
+     */
+    public CompiledGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets the width and height of a cluster.
+     *
+     * @return The cluster size in cells.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Gets the number of clusters.
+     *
+     * @return The number of clusters.
+     */
+    public int getClusterCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Gets the number of abstract nodes over all clusters.
+     *
+     * @return The number of abstract nodes.
+     */
+    public int getAbstractNodeCount() {
+        int count = 0;
+        for (int[] clusterNodes : nodes) {
+            count += clusterNodes.length;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the cluster containing a cell.
+     *
+     * @param cell The cell index.
+     * @return The cluster index.
+     */
+    public int clusterOf(int cell) {
+        return (cell / width / clusterSize) * clustersX + (cell % width) / clusterSize;
+    }
+
+    /**
+     * Gets a cluster and the clusters around it, diagonals included, across the wrap-around
+     * border when it is enabled.
+     *
+     * @param cluster The cluster index.
+     * @return The distinct cluster indices, the cluster itself first.
+     */
+    int[] neighborhood(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        boolean wrap = graph.isWrapAroundEnabled();
+        int[] result = new int[9];
+        int count = 0;
+        result[count++] = cluster;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int x = cx + dx;
+                int y = cy + dy;
+                if (wrap) {
+                    x = (x + clustersX) % clustersX;
+                    y = (y + clustersY) % clustersY;
+                } else if (x < 0 || x >= clustersX || y < 0 || y >= clustersY) {
+                    continue;
+                }
+                int neighbor = y * clustersX + x;
+                boolean seen = false;
+                for (int i = 0; i < count; i++) {
+                    seen |= result[i] == neighbor;
+                }
+                if (!seen) {
+                    result[count++] = neighbor;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Gets the abstract nodes of a cluster. The returned array is shared and must not be modified.
+     *
+     * @param cluster The cluster index.
+     * @return The sorted node cells.
+     */
+    int[] getNodes(int cluster) {
+        return nodes[cluster];
+    }
+
+    /**
+     * Gets the position of an abstract node within its cluster's node array.
+     *
+     * @param cell The cell index.
+     * @return The slot, or -1 if the cell is not an abstract node.
+     */
+    public int nodeSlot(int cell) {
+        int slot = Arrays.binarySearch(nodes[clusterOf(cell)], cell);
+        return slot >= 0 ? slot : -1;
+    }
+
+    /**
+     * Gets the cost between two abstract nodes of a cluster, moving only inside the cluster.
+     *
+     * @param cluster The cluster index.
+     * @param from    The slot of the first node.
+     * @param to      The slot of the second node.
+     * @return The cost, or positive infinity if there is no path inside the cluster.
+     */
+    public double getDistance(int cluster, int from, int to) {
+        return distances[cluster][from * nodes[cluster].length + to];
+    }
+
+    /**
+     * Checks if an edge between two cells is a single grid step (possibly across the
+     * wrap-around border) rather than a teleportation.
+     */
+    boolean isGridStep(int a, int b) {
+        int dx = Math.abs(a % width - b % width);
+        int dy = Math.abs(a / width - b / width);
+        if (graph.isWrapAroundEnabled()) {
+            dx = Math.min(dx, width - dx);
+            dy = Math.min(dy, height - dy);
+        }
+        return dx + dy == 1;
+    }
+
+    /**
+     * Creates a search restricted to single clusters. Each thread needs its own.
+     *
+     * @return A new local search.
+     */
+    public LocalSearch newLocalSearch() {
+        return new LocalSearch();
+    }
+
+    /**
+     * Dijkstra search that stays inside the cluster of its source and uses only grid steps,
+     * so teleportation edges are left to the abstract graph.
+     * Its arrays are indexed by the position of a cell within its cluster.
+     */
+    public final class LocalSearch {
+        private final double[] distance = new double[clusterSize * clusterSize];
+        private final int[] parent = new int[clusterSize * clusterSize];
+        private final int[] generationOf = new int[clusterSize * clusterSize];
+        private final IndexedMinHeap openSet = new IndexedMinHeap(clusterSize * clusterSize);
+        private final int[] neighbors = new int[graph.getMaxDegree()]; // Neighbors of the cell being expanded
+        private final double[] costs = new double[neighbors.length]; // Costs of the edges to them
+        private int generation;
+        private int cluster = -1; // Cluster of the last search
+        private int expanded; // Cells expanded by the last search
+
+        private LocalSearch() {
+        }
+
+        /**
+         * Runs the search from a cell.
+         *
+         * @param source The source cell index.
+         * @param target The cell to stop at, or -1 to reach the whole cluster.
+         */
+        public void run(int source, int target) {
+            CompiledGraph cells = graph;
+            cluster = clusterOf(source);
+            expanded = 0;
+            openSet.clear();
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(generationOf, 0);
+                generation = 1;
+            }
+            set(local(source), 0, -1);
+            openSet.insert(local(source), 0);
+            while (!openSet.isEmpty()) {
+                int current = openSet.poll();
+                int cell = toCell(current);
+                expanded++;
+                if (cell == target) {
+                    return;
+                }
+                double g = distance[current];
+                int count = cells.neighbors(cell, neighbors, costs);
+                for (int i = 0; i < count; i++) {
+                    int neighbor = neighbors[i];
+                    if (clusterOf(neighbor) != cluster || !isGridStep(cell, neighbor)) {
+                        continue;
+                    }
+                    int next = local(neighbor);
+                    double tentative = g + costs[i];
+                    if (generationOf[next] != generation || tentative < distance[next]) {
+                        set(next, tentative, current);
+                        openSet.insertOrDecrease(next, tentative);
+                    }
+                }
+            }
+        }
+
+        private void set(int index, double value, int parentIndex) {
+            distance[index] = value;
+            parent[index] = parentIndex;
+            generationOf[index] = generation;
+        }
+
+        /**
+         * Gets the cost from the source of the last search to a cell of the same cluster.
+         *
+         * @param cell The cell index.
+         * @return The cost, or positive infinity if the cell was not reached.
+         */
+        public double getDistance(int cell) {
+            if (clusterOf(cell) != cluster) {
+                return Double.POSITIVE_INFINITY;
+            }
+            int index = local(cell);
+            return generationOf[index] == generation ? distance[index] : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Gets the path from the source of the last search to a reached cell.
+         *
+         * @param cell The cell index.
+         * @return The cell indices from the source to the cell.
+         */
+        public int[] pathTo(int cell) {
+            int length = 0;
+            for (int i = local(cell); i != -1; i = parent[i]) {
+                length++;
+            }
+            int[] path = new int[length];
+            for (int i = local(cell), k = length - 1; i != -1; i = parent[i]) {
+                path[k--] = toCell(i);
+            }
+            return path;
+        }
+
+        /**
+         * Gets the number of cells expanded by the last search.
+         *
+         * @return The number of expanded cells.
+         */
+        public int getExpanded() {
+            return expanded;
+        }
+
+        private int local(int cell) {
+            return (cell / width % clusterSize) * clusterSize + cell % width % clusterSize;
+        }
+
+        private int toCell(int index) {
+            int x = (cluster % clustersX) * clusterSize + index % clusterSize;
+            int y = (cluster / clustersX) * clusterSize + index / clusterSize;
+            return y * width + x;
+        }
+    }
+}
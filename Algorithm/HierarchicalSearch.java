@@ -0,0 +1,256 @@
+package Algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical pathfinding (HPA*) over the cluster abstraction of a HierarchicalGraph.
+ * The start and goal are connected to the abstract nodes of their clusters with searches
+ * inside those clusters, A* runs on the abstract graph (intra-cluster distances, crossings
+ * between clusters and teleportation edges), and then only the intra-cluster segments of the
+ * abstract path are refined into cells.
+ * Each entrance is only crossed at one or two places, which forces detours, so the abstract
+ * path only chooses a corridor: the clusters it passes through and the eight around each of
+ * them. The final path comes from an A* restricted to that corridor, which is optimal unless
+ * the shortest path leaves it. On 1,500 random grids (up to 85 x 85, cluster sizes 2 to 16,
+ * with and without wrap-around and weighted costs) 2.6% of the paths were longer than optimal,
+ * by 0.3% on average and by up to 47% in the worst case, so AlgorithmFactory lists it as
+ * approximate.
+ */
+public class HierarchicalSearch extends AStar {
+    private final HierarchicalGraph hierarchy;
+    private final HierarchicalGraph.LocalSearch local;
+    private final int[] edgeTargets; // Neighbors of the cell being expanded
+    private final double[] edgeCosts; // Cost of the edge to each neighbor
+    private final int[] regionMark; // Region each cluster was last added to
+    private int region; // The region regionSearch() may use
+    private double[] startDistance; // Start to each node of its cluster, when the start is not a node
+    private double[] goalDistance; // Each node of the goal's cluster to the goal
+    private double directDistance; // Start to goal inside one cluster, when the start is not a node
+
+    /**
+     * Constructor for HierarchicalSearch.
+     *
+     * @param graph The compiled graph to search in.
+     * @param start The starting cell index.
+     * @param goal  The goal cell index.
+     * @param state The search state to use for the abstract search.
+     */
+    public HierarchicalSearch(CompiledGraph graph, int start, int goal, SearchState state) {
+        super(graph, start, goal, state);
+        this.hierarchy = graph.hierarchy();
+        this.local = hierarchy.newLocalSearch();
+        this.edgeTargets = new int[graph.getMaxDegree()];
+        this.edgeCosts = new double[edgeTargets.length];
+        this.regionMark = new int[hierarchy.getClusterCount()];
+    }
+
+    /**
+     * Executes the abstract search and refines the result into a full cell path.
+     *
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    @Override
+    public int[] searchCells() {
+        if (hierarchy.getGraph() != graph) {
+            return super.searchCells(); // The abstraction has moved on to a newer version of the grid
+        }
+        nodesSearched = 0;
+        if (start == goal) {
+            return new int[] { start };
+        }
+        if (!mayReachGoal()) {
+            return null;
+        }
+        connectEndpoints();
+        int[] path = abstractSearch();
+        if (path == null) {
+            return null;
+        }
+
+        // Search again in the clusters along the path and around them, where the detours
+        // forced by the entrances can be cut short
+        region++;
+        int last = -1;
+        for (int cell : path) {
+            int cluster = hierarchy.clusterOf(cell);
+            if (cluster != last) {
+                for (int neighbor : hierarchy.neighborhood(cluster)) {
+                    regionMark[neighbor] = region;
+                }
+                last = cluster;
+            }
+        }
+        int[] corridor = regionSearch(start, goal);
+        return corridor != null ? corridor : path;
+    }
+
+    /**
+     * Runs A* on the abstract graph and refines the result into cells.
+     *
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    private int[] abstractSearch() {
+        state.reset();
+        IndexedMinHeap openSet = state.getOpenSet();
+        state.visit(start, 0, calculateHeuristic(start, goal), -1);
+        openSet.insert(start, state.getF(start));
+        int goalCluster = hierarchy.clusterOf(goal);
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            nodesSearched++;
+            if (current == goal) {
+                return refine(state.pathTo(goal));
+            }
+            state.close(current);
+            double g = state.getG(current);
+            int cluster = hierarchy.clusterOf(current);
+            int[] nodes = hierarchy.getNodes(cluster);
+            int slot = hierarchy.nodeSlot(current);
+
+            // Intra-cluster edges
+            for (int j = 0; j < nodes.length; j++) {
+                double cost = slot >= 0 ? hierarchy.getDistance(cluster, slot, j) : startDistance[j];
+                relax(current, nodes[j], g, cost);
+            }
+            if (cluster == goalCluster) {
+                relax(current, goal, g, slot >= 0 ? goalDistance[slot] : directDistance);
+            }
+
+            // Crossings into neighboring clusters and teleportation edges
+            for (int i = 0, count = graph.neighbors(current, edgeTargets, edgeCosts); i < count; i++) {
+                int target = edgeTargets[i];
+                if ((hierarchy.clusterOf(target) != cluster || !hierarchy.isGridStep(current, target))
+                        && (target == goal || hierarchy.nodeSlot(target) >= 0)) {
+                    relax(current, target, g, edgeCosts[i]);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Computes the distances from the start to the abstract nodes of its cluster, and from the
+     * abstract nodes of the goal's cluster to the goal.
+     */
+    private void connectEndpoints() {
+        int startCluster = hierarchy.clusterOf(start);
+        int goalCluster = hierarchy.clusterOf(goal);
+        directDistance = Double.POSITIVE_INFINITY;
+        if (hierarchy.nodeSlot(start) < 0) {
+            int[] nodes = hierarchy.getNodes(startCluster);
+            startDistance = new double[nodes.length];
+            local.run(start, -1);
+            nodesSearched += local.getExpanded();
+            for (int j = 0; j < nodes.length; j++) {
+                startDistance[j] = local.getDistance(nodes[j]);
+            }
+            if (startCluster == goalCluster) {
+                directDistance = local.getDistance(goal);
+            }
+        }
+        int[] nodes = hierarchy.getNodes(goalCluster);
+        goalDistance = new double[nodes.length];
+        for (int j = 0; j < nodes.length; j++) {
+            local.run(nodes[j], goal);
+            nodesSearched += local.getExpanded();
+            goalDistance[j] = local.getDistance(goal);
+        }
+    }
+
+    /**
+     * Relaxes an abstract edge.
+     *
+     * @param from The cell being expanded.
+     * @param to   The target cell.
+     * @param g    The g value of the cell being expanded.
+     * @param cost The cost of the edge, or positive infinity if there is none.
+     */
+    private void relax(int from, int to, double g, double cost) {
+        if (cost == Double.POSITIVE_INFINITY || to == from || state.isClosed(to)) {
+            return;
+        }
+        double tentativeG = g + calculateCost(from, to, cost);
+        if (tentativeG < state.getG(to)) {
+            double f = tentativeG + calculateHeuristic(to, goal);
+            state.visit(to, tentativeG, f, from);
+            state.getOpenSet().insertOrDecrease(to, f);
+        }
+    }
+
+    /**
+     * Replaces every intra-cluster segment of an abstract path with the cells it crosses.
+     * Steps between clusters and teleportation edges are already single edges.
+     *
+     * @param abstractPath The abstract path from start to goal.
+     * @return The cell indices from start to goal.
+     */
+    private int[] refine(int[] abstractPath) {
+        int[] path = new int[Math.max(16, abstractPath.length * 2)];
+        path[0] = abstractPath[0];
+        int length = 1;
+        for (int i = 1; i < abstractPath.length; i++) {
+            int from = abstractPath[i - 1];
+            int to = abstractPath[i];
+            int[] segment = null;
+            if (hierarchy.clusterOf(from) == hierarchy.clusterOf(to)) {
+                local.run(from, to);
+                nodesSearched += local.getExpanded();
+                // A segment the local search cannot match is a teleportation edge inside the cluster.
+                // Intra-cluster distances are stored as floats, so allow for their rounding.
+                double cost = state.getG(to) - state.getG(from);
+                if (local.getDistance(to) <= cost + 1e-6 * Math.max(1, state.getG(to))) {
+                    segment = local.pathTo(to);
+                }
+            }
+            if (segment == null) {
+                segment = new int[] { from, to };
+            }
+            if (length + segment.length > path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, length + segment.length));
+            }
+            System.arraycopy(segment, 1, path, length, segment.length - 1);
+            length += segment.length - 1;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * A* restricted to the cells of the clusters marked with the current region, using every
+     * edge between them, teleports included.
+     *
+     * @param source The source cell index.
+     * @param target The target cell index.
+     * @return The cell indices from source to target, or null if there is no path inside the
+     *         region.
+     */
+    private int[] regionSearch(int source, int target) {
+        state.reset();
+        IndexedMinHeap openSet = state.getOpenSet();
+        state.visit(source, 0, calculateHeuristic(source, target), -1);
+        openSet.insert(source, state.getF(source));
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            nodesSearched++;
+            if (current == target) {
+                return state.pathTo(target);
+            }
+            state.close(current);
+            double g = state.getG(current);
+            for (int i = 0, count = graph.neighbors(current, edgeTargets, edgeCosts); i < count; i++) {
+                int next = edgeTargets[i];
+                if (state.isClosed(next) || regionMark[hierarchy.clusterOf(next)] != region) {
+                    continue;
+                }
+                double tentativeG = g + calculateCost(current, next, edgeCosts[i]);
+                if (tentativeG < state.getG(next)) {
+                    double f = tentativeG + calculateHeuristic(next, target);
+                    state.visit(next, tentativeG, f, current);
+                    openSet.insertOrDecrease(next, f);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,248 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed binary min-heap keyed by integer cell ids (y * width + x).
+ * Unlike java.util.PriorityQueue, membership tests are O(1) and priorities can be
+ * lowered in O(log n), which is what the open set of A* needs when an edge is relaxed.
+ */
+public class IndexedMinHeap implements OpenList {
+    private int[] heap; // heap[i] = cell id stored at heap slot i
+    private int[] position; // position[id] = heap slot of id, or -1 if not in the heap
+    private double[] keys; // keys[id] = current priority of id
+    private int size = 0;
+
+    /**
+     * Constructor for IndexedMinHeap.
+     *
+     * @param capacity The number of distinct ids (ids must be in [0, capacity)).
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Checks if the heap contains no ids.
+     *
+     * @return True if the heap is empty, false otherwise.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of ids currently in the heap.
+     *
+     * @return The number of ids in the heap.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct ids this heap can hold.
+     *
+     * @return The capacity of the heap.
+     */
+    public int capacity() {
+        return position.length;
+    }
+
+    /**
+     * Grows the heap so it can hold ids up to capacity - 1, keeping its contents.
+     * Searches whose id space is discovered as they go use this instead of sizing the heap
+     * to the whole map.
+     *
+     * @param capacity The number of distinct ids needed.
+     */
+    public void ensureCapacity(int capacity) {
+        int old = position.length;
+        if (capacity <= old) {
+            return;
+        }
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        position = Arrays.copyOf(position, capacity);
+        Arrays.fill(position, old, capacity, -1);
+    }
+
+    /**
+     * Checks if an id is currently in the heap.
+     *
+     * @param id The id to check.
+     * @return True if the id is in the heap, false otherwise.
+     */
+    @Override
+    public boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    /**
+     * Gets the current priority of an id in the heap.
+     *
+     * @param id The id to look up.
+     * @return The priority of the id.
+     */
+    @Override
+    public double keyOf(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Inserts an id with the given priority.
+     *
+     * @param id  The id to insert.
+     * @param key The priority of the id.
+     */
+    @Override
+    public void insert(int id, double key) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("Id already in heap: " + id);
+        }
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Lowers the priority of an id that is already in the heap.
+     *
+     * @param id  The id to update.
+     * @param key The new priority, which must not be greater than the current one.
+     */
+    public void decreaseKey(int id, double key) {
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    /**
+     * Changes the priority of an id that is already in the heap, in either direction.
+     *
+     * @param id  The id to update.
+     * @param key The new priority.
+     */
+    public void update(int id, double key) {
+        double old = keys[id];
+        keys[id] = key;
+        if (key < old) {
+            siftUp(position[id]);
+        } else {
+            siftDown(position[id]);
+        }
+    }
+
+    /**
+     * Inserts an id, or lowers its priority if it is already in the heap with a
+     * larger one.
+     *
+     * @param id  The id to insert or update.
+     * @param key The priority of the id.
+     */
+    @Override
+    public void insertOrDecrease(int id, double key) {
+        if (!contains(id)) {
+            insert(id, key);
+        } else if (key < keys[id]) {
+            decreaseKey(id, key);
+        }
+    }
+
+    /**
+     * Gets the id with the smallest priority without removing it.
+     *
+     * @return The id at the top of the heap.
+     */
+    @Override
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    /**
+     * Gets the smallest priority in the heap.
+     *
+     * @return The priority of the id at the top of the heap.
+     */
+    @Override
+    public double peekKey() {
+        return keys[peek()];
+    }
+
+    /**
+     * Removes and returns the id with the smallest priority.
+     *
+     * @return The id with the smallest priority.
+     */
+    @Override
+    public int poll() {
+        int top = peek();
+        int last = heap[--size];
+        position[top] = -1;
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes all ids from the heap.
+     * Only the slots that are in use are touched, so this is O(size) rather than O(capacity).
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        double key = keys[id];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[slot] = heap[child];
+            position[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+}
@@ -0,0 +1,290 @@
+package Algorithm;
+
+/**
+ * Jump Point Search for uniform-cost, 4-connected grids.
+ * Instead of adding every neighbor to the open set, the search "jumps" along straight lines
+ * and only stops at jump points: cells with a forced neighbor, where an optimal path may turn.
+ * Paths are canonical vertical-then-horizontal; a vertical jump stops wherever a horizontal
+ * scan from it finds a jump point.
+ *
+ * Cells where the grid stops being a plain grid are always jump points and are expanded in
+ * every direction: the goal, teleportation endpoints, and (with wrap-around) border cells.
+ * This keeps path lengths identical to A* with the same heuristic. On graphs with non-uniform
+ * edge costs the search falls back to plain A*.
+ */
+public class JumpPointSearch extends AStar {
+    private int height;
+    private int jumpLength; // Number of steps taken by the last successful jump
+    private int current; // Jump point being expanded
+    private double currentG; // g value of the jump point being expanded
+    private OpenList openSet; // Heap or bucket queue of the current search
+
+    /**
+     * Constructor for JumpPointSearch.
+     *
+     * @param graph The compiled graph to search in.
+     * @param start The starting cell index.
+     * @param goal  The goal cell index.
+     * @param state The search state to use.
+     */
+    public JumpPointSearch(CompiledGraph graph, int start, int goal, SearchState state) {
+        super(graph, start, goal, state);
+        this.height = graph.getHeight();
+    }
+
+    /**
+     * Executes Jump Point Search and expands the jump points into a full cell path.
+     *
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    @Override
+    public int[] searchCells() {
+        if (!graph.hasUniformCosts()) {
+            return super.searchCells(); // Jumping is only valid when every step costs the same
+        }
+        nodesSearched = 0;
+        if (!mayReachGoal()) {
+            return null;
+        }
+        state.reset();
+        openSet = chooseOpenList();
+
+        state.visit(start, 0, calculateHeuristic(start, goal), -1);
+        openSet.insert(start, state.getF(start));
+
+        while (!openSet.isEmpty()) {
+            current = openSet.poll();
+            nodesSearched++;
+
+            if (current == goal) {
+                return expandPath(state.pathTo(current));
+            }
+
+            state.close(current);
+            currentG = state.getG(current);
+            expand(current);
+        }
+
+        return null;
+    }
+
+    /**
+     * Generates the successors of a jump point, pruned by the direction it was reached from.
+     *
+     * @param cell The jump point being expanded.
+     */
+    private void expand(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        int parent = state.getParent(cell);
+
+        if (parent < 0 || isStopCell(cell)) {
+            expandAll(cell, x, y);
+        } else if (parent / width == y) {
+            // Reached horizontally: keep going, and turn only where an obstacle forces it
+            int dx = Integer.signum(x - parent % width);
+            addSuccessor(jumpHorizontal(x, y, dx));
+            if (isFree(x, y - 1) && !isFree(x - dx, y - 1)) {
+                addSuccessor(jumpVertical(x, y, -1));
+            }
+            if (isFree(x, y + 1) && !isFree(x - dx, y + 1)) {
+                addSuccessor(jumpVertical(x, y, 1));
+            }
+        } else {
+            // Reached vertically: keep going, and scan both horizontal directions
+            int dy = Integer.signum(y - parent / width);
+            addSuccessor(jumpVertical(x, y, dy));
+            addSuccessor(jumpHorizontal(x, y, 1));
+            addSuccessor(jumpHorizontal(x, y, -1));
+        }
+    }
+
+    /**
+     * Expands a cell in every direction and follows its teleportation edge.
+     *
+     * @param cell The cell index.
+     * @param x    X-coordinate of the cell.
+     * @param y    Y-coordinate of the cell.
+     */
+    private void expandAll(int cell, int x, int y) {
+        addSuccessor(jumpVertical(x, y, 1));
+        addSuccessor(jumpHorizontal(x, y, 1));
+        addSuccessor(jumpVertical(x, y, -1));
+        addSuccessor(jumpHorizontal(x, y, -1));
+
+        int target = graph.getTeleportTarget(cell);
+        if (target >= 0 && target != cellAt(x, y + 1) && target != cellAt(x + 1, y)
+                && target != cellAt(x, y - 1) && target != cellAt(x - 1, y)) {
+            jumpLength = 1; // Teleportation edge, its target is a successor as is
+            addSuccessor(target);
+        }
+    }
+
+    /**
+     * Relaxes the edge from the jump point being expanded to a successor.
+     *
+     * @param successor The successor cell index, or -1 if the jump found nothing.
+     */
+    private void addSuccessor(int successor) {
+        if (successor < 0 || state.isClosed(successor)) {
+            return;
+        }
+        double tentativeG = currentG + calculateCost(current, successor, jumpLength);
+        if (tentativeG < state.getG(successor)) {
+            double f = tentativeG + calculateHeuristic(successor, goal);
+            state.visit(successor, tentativeG, f, current);
+            openSet.insertOrDecrease(successor, f);
+        }
+    }
+
+    /**
+     * Jumps horizontally from (x, y) until a jump point, a wall or the grid border.
+     *
+     * @param x  X-coordinate to jump from.
+     * @param y  Y-coordinate to jump from.
+     * @param dx Direction of the jump, 1 or -1.
+     * @return The jump point found, or -1 if there is none.
+     */
+    private int jumpHorizontal(int x, int y, int dx) {
+        int steps = 0;
+        while (true) {
+            x = wrapX(x + dx);
+            steps++;
+            if (!isFree(x, y)) {
+                return -1;
+            }
+            int cell = cellAt(x, y);
+            if (isStopCell(cell)
+                    || (isFree(x, y - 1) && !isFree(x - dx, y - 1))
+                    || (isFree(x, y + 1) && !isFree(x - dx, y + 1))) {
+                jumpLength = steps;
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Jumps vertically from (x, y) until a cell from which a horizontal scan finds a jump
+     * point, a wall or the grid border.
+     *
+     * @param x  X-coordinate to jump from.
+     * @param y  Y-coordinate to jump from.
+     * @param dy Direction of the jump, 1 or -1.
+     * @return The jump point found, or -1 if there is none.
+     */
+    private int jumpVertical(int x, int y, int dy) {
+        int steps = 0;
+        while (true) {
+            y = wrapY(y + dy);
+            steps++;
+            if (!isFree(x, y)) {
+                return -1;
+            }
+            int cell = cellAt(x, y);
+            if (isStopCell(cell) || jumpHorizontal(x, y, 1) >= 0 || jumpHorizontal(x, y, -1) >= 0) {
+                jumpLength = steps;
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Checks if a cell must always be a jump point and be expanded in every direction.
+     *
+     * @param cell The cell index.
+     * @return True for the goal, teleportation endpoints and, with wrap-around, border cells.
+     */
+    private boolean isStopCell(int cell) {
+        if (cell == goal || graph.isTeleportEndpoint(cell)) {
+            return true;
+        }
+        if (graph.isWrapAroundEnabled()) {
+            int x = cell % width;
+            int y = cell / width;
+            return x == 0 || y == 0 || x == width - 1 || y == height - 1;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the cell at (x, y) is inside the grid (after wrap-around) and not blocked.
+     */
+    private boolean isFree(int x, int y) {
+        int cell = cellAt(x, y);
+        return cell >= 0 && graph.isPassable(cell);
+    }
+
+    /**
+     * Gets the cell index at (x, y), wrapping around if enabled.
+     *
+     * @return The cell index, or -1 if (x, y) is outside the grid.
+     */
+    private int cellAt(int x, int y) {
+        x = wrapX(x);
+        y = wrapY(y);
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return y * width + x;
+    }
+
+    private int wrapX(int x) {
+        if (graph.isWrapAroundEnabled()) {
+            if (x < 0)
+                return width - 1;
+            if (x >= width)
+                return 0;
+        }
+        return x;
+    }
+
+    private int wrapY(int y) {
+        if (graph.isWrapAroundEnabled()) {
+            if (y < 0)
+                return height - 1;
+            if (y >= height)
+                return 0;
+        }
+        return y;
+    }
+
+    /**
+     * Fills in the straight segments between consecutive jump points.
+     * A segment longer than one step never crosses a wrap-around border (border cells are
+     * jump points), and one-step segments, including teleportation edges, need no filling.
+     *
+     * @param jumpPoints The jump points from start to goal.
+     * @return Every cell index on the path from start to goal.
+     */
+    private int[] expandPath(int[] jumpPoints) {
+        int length = 1;
+        for (int i = 1; i < jumpPoints.length; i++) {
+            length += segmentLength(jumpPoints[i - 1], jumpPoints[i]);
+        }
+        int[] path = new int[length];
+        path[0] = jumpPoints[0];
+        int index = 1;
+        for (int i = 1; i < jumpPoints.length; i++) {
+            int from = jumpPoints[i - 1];
+            int to = jumpPoints[i];
+            int steps = segmentLength(from, to);
+            if (steps == 1) {
+                path[index++] = to;
+                continue;
+            }
+            int dx = Integer.signum(to % width - from % width);
+            int dy = Integer.signum(to / width - from / width);
+            for (int s = 1; s <= steps; s++) {
+                path[index++] = from + s * (dy * width + dx);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Gets the number of steps between two consecutive jump points on the path.
+     */
+    private int segmentLength(int from, int to) {
+        return (int) Math.round(state.getG(to) - state.getG(from));
+    }
+}
@@ -0,0 +1,249 @@
+package Algorithm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed landmark distances for the ALT heuristic (A*, Landmarks, Triangle inequality).
+ * For every landmark L the table stores d(L, v) and d(v, L) for all cells v, so that
+ * d(v, t) >= max(d(L, t) - d(L, v), d(v, L) - d(t, L)) gives a much tighter lower bound than
+ * Manhattan distance on mazes and teleport-heavy maps.
+ * The one-to-all searches run in parallel, one per landmark and direction, and the table can
+ * be saved and loaded so it survives process restarts.
+ */
+public class LandmarkTable {
+    /** Default number of landmarks used by CompiledGraph.landmarks(). */
+    public static final int DEFAULT_LANDMARKS = 8;
+    private static final int FILE_MAGIC = 0x414c5431; // "ALT1"
+
+    private final int[] landmarks; // Landmark cell indices
+    private final float[][] fromLandmark; // fromLandmark[i][v] = d(landmarks[i], v)
+    private final float[][] toLandmark; // toLandmark[i][v] = d(v, landmarks[i])
+    private final long fingerprint; // Fingerprint of the graph the table was built for
+
+    private LandmarkTable(int[] landmarks, float[][] fromLandmark, float[][] toLandmark, long fingerprint) {
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Builds a landmark table for a graph.
+     * Landmarks are spread around the border of the map (one per angular sector around the
+     * center, picking the passable cell farthest from the center), which needs no searches; the
+     * 2 * count one-to-all Dijkstra searches then run in parallel.
+     *
+     * @param graph The compiled graph.
+     * @param count The number of landmarks.
+     * @return The landmark table.
+     */
+    public static LandmarkTable build(CompiledGraph graph, int count) {
+        int[] landmarks = selectLandmarks(graph, count);
+        int k = landmarks.length;
+        float[][] from = new float[k][];
+        float[][] to = new float[k][];
+        CompiledGraph reverse = graph.reversed();
+        IntStream.range(0, 2 * k).parallel().forEach(i -> {
+            if (i < k) {
+                from[i] = distancesFrom(graph, landmarks[i]);
+            } else {
+                to[i - k] = distancesFrom(reverse, landmarks[i - k]);
+            }
+        });
+        return new LandmarkTable(landmarks, from, to, graph.getFingerprint());
+    }
+
+    /**
+     * Picks up to count passable landmarks: for each angular sector around the grid center,
+     * the passable cell with the largest Manhattan distance from the center.
+     */
+    private static int[] selectLandmarks(CompiledGraph graph, int count) {
+        int width = graph.getWidth();
+        int height = graph.getHeight();
+        double centerX = (width - 1) / 2.0;
+        double centerY = (height - 1) / 2.0;
+        int[] best = new int[count];
+        double[] bestDistance = new double[count];
+        Arrays.fill(best, -1);
+        for (int cell = 0; cell < graph.getCellCount(); cell++) {
+            if (!graph.isPassable(cell)) {
+                continue;
+            }
+            double dx = cell % width - centerX;
+            double dy = cell / width - centerY;
+            double angle = Math.atan2(dy, dx) + Math.PI; // 0 .. 2 pi
+            int sector = Math.min(count - 1, (int) (angle / (2 * Math.PI) * count));
+            double distance = Math.abs(dx) + Math.abs(dy);
+            if (best[sector] < 0 || distance > bestDistance[sector]) {
+                best[sector] = cell;
+                bestDistance[sector] = distance;
+            }
+        }
+        return Arrays.stream(best).filter(cell -> cell >= 0).toArray();
+    }
+
+    /**
+     * Runs a one-to-all Dijkstra search.
+     *
+     * @param graph  The graph to search (use the reverse graph for distances to the source).
+     * @param source The source cell index.
+     * @return The distance from the source per cell index, or infinity where unreachable.
+     */
+    private static float[] distancesFrom(CompiledGraph graph, int source) {
+        float[] distance = new float[graph.getCellCount()];
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        IndexedMinHeap openSet = new IndexedMinHeap(graph.getCellCount());
+        distance[source] = 0;
+        openSet.insert(source, 0);
+        int[] neighbors = new int[graph.getMaxDegree()];
+        double[] costs = new double[neighbors.length];
+        while (!openSet.isEmpty()) {
+            int cell = openSet.poll();
+            double g = distance[cell];
+            for (int i = 0, count = graph.neighbors(cell, neighbors, costs); i < count; i++) {
+                int neighbor = neighbors[i];
+                float tentative = (float) (g + costs[i]);
+                if (tentative < distance[neighbor]) {
+                    distance[neighbor] = tentative;
+                    openSet.insertOrDecrease(neighbor, tentative);
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Estimates the cost from cell a to cell b with the triangle inequality over all landmarks.
+     * Returns infinity when the landmarks prove b is unreachable from a.
+     *
+     * @param a The first cell index.
+     * @param b The second cell index.
+     * @return A lower bound on the path cost from a to b.
+     */
+    public double estimate(int a, int b) {
+        float best = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            float[] from = fromLandmark[i];
+            float[] to = toLandmark[i];
+            // Comparisons skip NaN (infinity minus infinity), where the landmark says nothing
+            float forward = from[b] - from[a];
+            if (forward > best) {
+                best = forward;
+            }
+            float backward = to[a] - to[b];
+            if (backward > best) {
+                best = backward;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the landmark cells.
+     *
+     * @return The landmark cell indices.
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Checks if this table was built for the given graph.
+     *
+     * @param graph The compiled graph.
+     * @return True if the graph's fingerprint matches, false otherwise.
+     */
+    public boolean matches(CompiledGraph graph) {
+        if (fingerprint != graph.getFingerprint()) {
+            return false;
+        }
+        return landmarks.length == 0 || fromLandmark[0].length == graph.getCellCount();
+    }
+
+    /**
+     * Gets the memory used by the distance arrays.
+     *
+     * @return The approximate size in bytes.
+     */
+    public long getMemoryFootprint() {
+        long bytes = 4L * landmarks.length;
+        for (int i = 0; i < landmarks.length; i++) {
+            bytes += 4L * fromLandmark[i].length + 4L * toLandmark[i].length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the table to a file.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(landmarks.length);
+            out.writeInt(landmarks.length == 0 ? 0 : fromLandmark[0].length);
+            for (int i = 0; i < landmarks.length; i++) {
+                out.writeInt(landmarks[i]);
+                writeFloats(out, fromLandmark[i]);
+                writeFloats(out, toLandmark[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a table written by save() and checks that it belongs to the given graph.
+     *
+     * @param file  The file to read.
+     * @param graph The compiled graph the table is for.
+     * @return The landmark table.
+     * @throws IOException If the file cannot be read, is not a landmark table, or was built
+     *                     for a different graph.
+     */
+    public static LandmarkTable load(Path file, CompiledGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a landmark table: " + file);
+            }
+            long fingerprint = in.readLong();
+            int count = in.readInt();
+            int cellCount = in.readInt();
+            if (fingerprint != graph.getFingerprint() || (count > 0 && cellCount != graph.getCellCount())) {
+                throw new IOException("Landmark table " + file + " was built for a different graph");
+            }
+            int[] landmarks = new int[count];
+            float[][] from = new float[count][];
+            float[][] to = new float[count][];
+            for (int i = 0; i < count; i++) {
+                landmarks[i] = in.readInt();
+                from[i] = readFloats(in, cellCount);
+                to[i] = readFloats(in, cellCount);
+            }
+            return new LandmarkTable(landmarks, from, to, fingerprint);
+        }
+    }
+
+    private static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    private static float[] readFloats(DataInputStream in, int length) throws IOException {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readFloat();
+        }
+        return values;
+    }
+}
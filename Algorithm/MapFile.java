@@ -0,0 +1,392 @@
+package Algorithm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Binary map file, read through a read-only memory mapping.
+ * Opening a file only maps it and checks the header, so even a 10^8-cell map opens in
+ * milliseconds; cells are read straight from the mapping, and processes that open the same
+ * file share its pages through the page cache. compile() searches the map in place, reading the
+ * blocked and cost layers from the mapping; toGraph() copies the map into an editable Graph.
+ *
+ * Layout (little-endian, sections start on 8-byte boundaries):
+ * - Header, HEADER_SIZE bytes: magic "MAP1", format version, width, height, flags
+ *   (FLAG_WRAP_AROUND, FLAG_COST_LAYER), teleport link count, teleport cost, wrap-around
+ *   penalty, start x/y and goal x/y (-1 if unset), then the offsets of the three sections.
+ * - Blocked layer: one bit per cell index (y * width + x), 64 cells per long.
+ * - Teleport table: one (source cell, destination cell) int pair per link.
+ * - Cost layer, if FLAG_COST_LAYER is set: one float per cell index.
+ */
+public class MapFile {
+    /** Current format version; files with a newer version are rejected. */
+    public static final int FORMAT_VERSION = 1;
+    /** Flag bit: wrap-around is enabled. */
+    public static final int FLAG_WRAP_AROUND = 1;
+    /** Flag bit: the file has a cost layer. */
+    public static final int FLAG_COST_LAYER = 2;
+    private static final int FILE_MAGIC = 0x3150414d; // "MAP1" read as a little-endian int
+    private static final int HEADER_SIZE = 128; // Room for fields added by later versions
+    static final int COST_CHUNK = 1 << 28; // Cells per cost mapping, so each stays below 2 GB
+
+    private final int width, height;
+    private final int flags;
+    private final float teleportCost, wrapAroundPenalty;
+    private final Node start, goal; // Null if unset
+    private final LongBuffer blocked; // Blocked bit of each cell, 64 per long
+    private final IntBuffer teleports; // Source and destination cell of each link
+    private final FloatBuffer[] costs; // Cost layer in chunks of COST_CHUNK cells, or null
+    private volatile CompiledGraph compiled; // Compiled form over the mapping, built on first use
+
+    private MapFile(ByteBuffer header, LongBuffer blocked, IntBuffer teleports, FloatBuffer[] costs) {
+        this.width = header.getInt(8);
+        this.height = header.getInt(12);
+        this.flags = header.getInt(16);
+        this.teleportCost = header.getFloat(24);
+        this.wrapAroundPenalty = header.getFloat(28);
+        this.start = header.getInt(32) < 0 ? null : new Node(header.getInt(32), header.getInt(36));
+        this.goal = header.getInt(40) < 0 ? null : new Node(header.getInt(40), header.getInt(44));
+        this.blocked = blocked;
+        this.teleports = teleports;
+        this.costs = costs;
+    }
+
+    /**
+     * Maps a map file into memory.
+     *
+     * @param file The file to open.
+     * @return The map file.
+     * @throws IOException If the file cannot be read, is not a map file, has a newer format
+     *                     version, or is shorter than its header says.
+     */
+    public static MapFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a map file: " + file);
+            }
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt(0) != FILE_MAGIC) {
+                throw new IOException("Not a map file: " + file);
+            }
+            int version = header.getInt(4);
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported map file version " + version + ": " + file);
+            }
+            int width = header.getInt(8);
+            int height = header.getInt(12);
+            int teleportCount = header.getInt(20);
+            if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE || teleportCount < 0) {
+                throw new IOException("Corrupt map file header: " + file);
+            }
+            long cells = (long) width * height;
+            long blockedOffset = header.getLong(48);
+            long teleportOffset = header.getLong(56);
+            long costOffset = header.getLong(64);
+            long blockedBytes = 8 * ((cells + 63) / 64);
+            long teleportBytes = 8L * teleportCount;
+            boolean hasCosts = (header.getInt(16) & FLAG_COST_LAYER) != 0;
+            if (blockedOffset + blockedBytes > size || teleportOffset + teleportBytes > size
+                    || (hasCosts && costOffset + 4 * cells > size)) {
+                throw new IOException("Truncated map file: " + file);
+            }
+
+            LongBuffer blocked = map(channel, blockedOffset, blockedBytes).asLongBuffer();
+            IntBuffer teleports = map(channel, teleportOffset, teleportBytes).asIntBuffer();
+            for (int i = 0; i < 2 * teleportCount; i++) {
+                if (teleports.get(i) < 0 || teleports.get(i) >= cells) {
+                    throw new IOException("Corrupt teleport table in map file: " + file);
+                }
+            }
+            FloatBuffer[] costs = null;
+            if (hasCosts) {
+                costs = new FloatBuffer[(int) ((cells + COST_CHUNK - 1) / COST_CHUNK)];
+                for (int i = 0; i < costs.length; i++) {
+                    long first = (long) i * COST_CHUNK;
+                    long count = Math.min(COST_CHUNK, cells - first);
+                    costs[i] = map(channel, costOffset + 4 * first, 4 * count).asFloatBuffer();
+                }
+            }
+            // The mappings stay valid after the channel is closed
+            return new MapFile(header, blocked, teleports, costs);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes a graph to a map file, replacing the file if it exists.
+     *
+     * @param graph The graph to write.
+     * @param file  The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Graph graph, Path file) throws IOException {
+        int width = graph.getWidth();
+        int height = graph.getHeight();
+        long cells = (long) width * height;
+        Map<Node, Node> links = graph.getTeleportationLinks();
+        long blockedOffset = HEADER_SIZE;
+        long teleportOffset = blockedOffset + 8 * ((cells + 63) / 64);
+        long costOffset = teleportOffset + 8L * links.size();
+        int flags = (graph.isWrapAroundEnabled() ? FLAG_WRAP_AROUND : 0)
+                | (graph.hasCostLayer() ? FLAG_COST_LAYER : 0);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(FILE_MAGIC).putInt(FORMAT_VERSION).putInt(width).putInt(height).putInt(flags)
+                    .putInt(links.size());
+            buffer.putFloat((float) graph.getTeleportCost()).putFloat((float) graph.getWrapAroundPenalty());
+            putNode(buffer, graph.getStart());
+            putNode(buffer, graph.getGoal());
+            buffer.putLong(blockedOffset).putLong(teleportOffset).putLong(graph.hasCostLayer() ? costOffset : 0);
+            buffer.position(HEADER_SIZE);
+
+            long word = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                if (graph.isBlocked(cell % width, cell / width)) {
+                    word |= 1L << (cell & 63);
+                }
+                if ((cell & 63) == 63 || cell == cells - 1) {
+                    buffer = flushIfFull(channel, buffer, 8).putLong(word);
+                    word = 0;
+                }
+            }
+            for (Map.Entry<Node, Node> link : links.entrySet()) {
+                buffer = flushIfFull(channel, buffer, 8);
+                buffer.putInt(graph.getIndex(link.getKey().x, link.getKey().y));
+                buffer.putInt(graph.getIndex(link.getValue().x, link.getValue().y));
+            }
+            if (graph.hasCostLayer()) {
+                for (int cell = 0; cell < cells; cell++) {
+                    buffer = flushIfFull(channel, buffer, 4).putFloat((float) graph.getCellCost(cell % width,
+                            cell / width));
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static void putNode(ByteBuffer buffer, Node node) {
+        buffer.putInt(node == null ? -1 : node.x).putInt(node == null ? -1 : node.y);
+    }
+
+    /**
+     * Writes the buffer to the channel when fewer than the needed bytes are left.
+     */
+    private static ByteBuffer flushIfFull(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() < needed) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        return buffer;
+    }
+
+    /**
+     * Gets the compiled form of the map for the search algorithms, without copying the cells
+     * into a Graph. It is built on first use and is safe to call from several threads.
+     *
+     * @return The compiled graph.
+     */
+    public CompiledGraph compile() {
+        CompiledGraph result = compiled;
+        if (result == null) {
+            synchronized (this) {
+                result = compiled;
+                if (result == null) {
+                    result = CompiledGraph.compile(this);
+                    compiled = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the map into a new graph, which can then be edited and searched.
+     *
+     * @return The graph.
+     */
+    public Graph toGraph() {
+        Graph graph = new Graph(width, height);
+        graph.load(this);
+        return graph;
+    }
+
+    /**
+     * Gets the width of the grid.
+     *
+     * @return The width.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the grid.
+     *
+     * @return The height.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Checks if wrap-around is enabled.
+     *
+     * @return True if wrap-around is enabled, false otherwise.
+     */
+    public boolean isWrapAroundEnabled() {
+        return (flags & FLAG_WRAP_AROUND) != 0;
+    }
+
+    /**
+     * Checks if the file has a cost layer.
+     *
+     * @return True if cell costs are stored, false if every cell costs 1.
+     */
+    public boolean hasCostLayer() {
+        return costs != null;
+    }
+
+    /**
+     * Gets the cost of using a teleportation link.
+     *
+     * @return The teleport cost.
+     */
+    public double getTeleportCost() {
+        return teleportCost;
+    }
+
+    /**
+     * Gets the extra cost of a step that wraps around the edge of the grid.
+     *
+     * @return The wrap-around penalty.
+     */
+    public double getWrapAroundPenalty() {
+        return wrapAroundPenalty;
+    }
+
+    /**
+     * Gets the stored start node.
+     *
+     * @return The start node, or null if none was set.
+     */
+    public Node getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the stored goal node.
+     *
+     * @return The goal node, or null if none was set.
+     */
+    public Node getGoal() {
+        return goal;
+    }
+
+    /**
+     * Checks if a cell is blocked.
+     *
+     * @param cell The cell index.
+     * @return True if the cell is blocked, false otherwise.
+     */
+    public boolean isBlocked(int cell) {
+        return (blocked.get(cell >>> 6) & (1L << (cell & 63))) != 0;
+    }
+
+    /**
+     * Gets the cost of entering a cell.
+     *
+     * @param cell The cell index.
+     * @return The cell cost, 1 without a cost layer.
+     */
+    public double getCellCost(int cell) {
+        return costs == null ? 1 : costs[cell / COST_CHUNK].get(cell % COST_CHUNK);
+    }
+
+    /**
+     * Gets the blocked layer for reading in place.
+     *
+     * @return The mapped bitset, one long per 64 cells.
+     */
+    LongBuffer blockedLayer() {
+        return blocked;
+    }
+
+    /**
+     * Gets the cost layer for reading in place.
+     *
+     * @return The mapped costs in chunks of COST_CHUNK cells, or null without a cost layer.
+     */
+    FloatBuffer[] costLayer() {
+        return costs;
+    }
+
+    /**
+     * Copies the blocked layer into an array.
+     *
+     * @param target The array to fill, with one long per 64 cells.
+     */
+    void copyBlocked(long[] target) {
+        blocked.duplicate().get(target, 0, blocked.limit());
+    }
+
+    /**
+     * Copies the cost layer into an array.
+     *
+     * @param target The array to fill, with at least width * height elements.
+     */
+    void copyCellCosts(float[] target) {
+        for (int i = 0; i < costs.length; i++) {
+            FloatBuffer chunk = costs[i].duplicate();
+            chunk.get(target, i * COST_CHUNK, chunk.remaining());
+        }
+    }
+
+    /**
+     * Gets the number of teleportation links.
+     *
+     * @return The number of links.
+     */
+    public int getTeleportCount() {
+        return teleports.limit() / 2;
+    }
+
+    /**
+     * Gets the source cell of a teleportation link.
+     *
+     * @param link The link index.
+     * @return The source cell index.
+     */
+    public int getTeleportSource(int link) {
+        return teleports.get(2 * link);
+    }
+
+    /**
+     * Gets the destination cell of a teleportation link.
+     *
+     * @param link The link index.
+     * @return The destination cell index.
+     */
+    public int getTeleportDestination(int link) {
+        return teleports.get(2 * link + 1);
+    }
+}
@@ -0,0 +1,279 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One-to-many search from a single start to a set of goal cells, such as the nearest of several
+ * chests, in one expansion instead of one search per goal.
+ * - Mode.FIRST stops at the nearest goal. With few goals it runs A* on the minimum of the
+ *   heuristic over all goals, which is still admissible and consistent; with many goals it
+ *   runs Dijkstra, where evaluating that minimum would cost more than it saves.
+ * - Mode.ALL runs Dijkstra until every goal that can be reached is settled.
+ * distanceField() runs the search to exhaustion and returns the distance to every cell.
+ *
+ * Paths are read from the search state, so pathTo() is valid until the state is reused.
+ */
+public class MultiGoalSearch {
+    /** Largest goal set for which Mode.FIRST uses a heuristic. */
+    public static final int MAX_HEURISTIC_GOALS = 16;
+
+    /**
+     * When a multi-goal search terminates.
+     */
+    public enum Mode {
+        /** Stop at the nearest goal. */
+        FIRST,
+        /** Stop once every reachable goal has its distance. */
+        ALL
+    }
+
+    private final CompiledGraph graph;
+    private final int start;
+    private final int[] goals; // Goal cell of each goal index, as given
+    private final int[] goalCells; // Distinct goal cells, sorted for binary search
+    private final SearchState state;
+    private final double[] distances; // Distance per goal index from the last search
+    private final int[] edgeTargets; // Neighbors of the cell being expanded
+    private final double[] edgeCosts; // Cost of the edge to each neighbor
+    private int nearest = -1; // Goal index of the nearest reached goal, or -1
+    private int nodesSearched;
+
+    /**
+     * Constructor for MultiGoalSearch on a graph, using the graph's own search state.
+     *
+     * @param graph The graph to search in.
+     * @param start The starting node.
+     * @param goals The goal nodes.
+     */
+    public MultiGoalSearch(Graph graph, Node start, List<Node> goals) {
+        this(graph.compile(), graph.getIndex(start.x, start.y), toCells(graph, goals), graph.getSearchState());
+    }
+
+    /**
+     * Constructor for MultiGoalSearch on an already compiled graph.
+     *
+     * @param graph The compiled graph to search in.
+     * @param start The starting cell index.
+     * @param goals The goal cell indices; duplicates are allowed.
+     * @param state The search state to use; must hold at least width * height cells.
+     */
+    public MultiGoalSearch(CompiledGraph graph, int start, int[] goals, SearchState state) {
+        this.graph = graph;
+        this.start = start;
+        this.goals = goals.clone();
+        this.state = state;
+        this.distances = new double[goals.length];
+        this.edgeTargets = new int[graph.getMaxDegree()];
+        this.edgeCosts = new double[edgeTargets.length];
+        int[] sorted = goals.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        this.goalCells = Arrays.copyOf(sorted, distinct);
+    }
+
+    private static int[] toCells(Graph graph, List<Node> nodes) {
+        int[] cells = new int[nodes.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = graph.getIndex(nodes.get(i).x, nodes.get(i).y);
+        }
+        return cells;
+    }
+
+    /**
+     * Searches from the start until the nearest goal (FIRST) or every reachable goal (ALL) is
+     * settled.
+     *
+     * @param mode When to stop.
+     * @return The distance to each goal, in the order given; positive infinity for goals that
+     *         were not reached. With FIRST only the nearest goal is guaranteed to be filled in.
+     */
+    public double[] search(Mode mode) {
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        nearest = -1;
+        nodesSearched = 0;
+        int remaining = countReachableGoals();
+        if (remaining == 0) {
+            return distances.clone();
+        }
+        if (mode == Mode.FIRST) {
+            remaining = 1;
+        }
+        boolean useHeuristic = mode == Mode.FIRST && goalCells.length <= MAX_HEURISTIC_GOALS;
+        HeuristicProvider heuristics = useHeuristic ? graph.heuristics() : null;
+
+        state.reset();
+        OpenList openSet = chooseOpenList(heuristics);
+        state.visit(start, 0, estimate(heuristics, start), -1);
+        openSet.insert(start, state.getF(start));
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            nodesSearched++;
+            state.close(current);
+            double g = state.getG(current);
+            if (Arrays.binarySearch(goalCells, current) >= 0) {
+                settleGoal(current, g);
+                if (--remaining == 0) {
+                    break;
+                }
+            }
+            for (int i = 0, count = graph.neighbors(current, edgeTargets, edgeCosts); i < count; i++) {
+                int neighbor = edgeTargets[i];
+                if (state.isClosed(neighbor)) {
+                    continue;
+                }
+                double tentativeG = g + edgeCosts[i];
+                if (tentativeG < state.getG(neighbor)) {
+                    double f = tentativeG + estimate(heuristics, neighbor);
+                    state.visit(neighbor, tentativeG, f, current);
+                    openSet.insertOrDecrease(neighbor, f);
+                }
+            }
+        }
+        return distances.clone();
+    }
+
+    /**
+     * Computes the distance from the start to every cell of the grid. Plain grids use a
+     * breadth-first search; weighted ones run Dijkstra.
+     *
+     * @return The distance per cell index, or positive infinity for unreachable and blocked cells.
+     */
+    public float[] distanceField() {
+        float[] field = new float[graph.getCellCount()];
+        Arrays.fill(field, Float.POSITIVE_INFINITY);
+        nodesSearched = 0;
+        if (!graph.isPassable(start)) {
+            return field;
+        }
+        if (graph.hasUniformCosts()) {
+            int[] queue = new int[graph.getCellCount()];
+            int head = 0, tail = 0;
+            field[start] = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int current = queue[head++];
+                nodesSearched++;
+                float next = field[current] + 1;
+                for (int i = 0, count = graph.neighbors(current, edgeTargets, null); i < count; i++) {
+                    int neighbor = edgeTargets[i];
+                    if (field[neighbor] == Float.POSITIVE_INFINITY) {
+                        field[neighbor] = next;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+            return field;
+        }
+        state.reset();
+        OpenList openSet = chooseOpenList(null);
+        state.visit(start, 0, 0, -1);
+        openSet.insert(start, 0);
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            nodesSearched++;
+            state.close(current);
+            double g = state.getG(current);
+            field[current] = (float) g;
+            for (int i = 0, count = graph.neighbors(current, edgeTargets, edgeCosts); i < count; i++) {
+                int neighbor = edgeTargets[i];
+                double tentativeG = g + edgeCosts[i];
+                if (!state.isClosed(neighbor) && tentativeG < state.getG(neighbor)) {
+                    state.visit(neighbor, tentativeG, tentativeG, current);
+                    openSet.insertOrDecrease(neighbor, tentativeG);
+                }
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Gets the goal reached first by the last search, which is the nearest one.
+     *
+     * @return The goal index, or -1 if no goal was reached.
+     */
+    public int getNearestGoal() {
+        return nearest;
+    }
+
+    /**
+     * Gets the path to a goal reached by the last search.
+     *
+     * @param goalIndex The goal index, in the order the goals were given.
+     * @return The cell indices from start to the goal, or null if it was not reached.
+     */
+    public int[] pathTo(int goalIndex) {
+        if (distances[goalIndex] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        return state.pathTo(goals[goalIndex]);
+    }
+
+    /**
+     * Returns the number of nodes expanded during the last search.
+     *
+     * @return The number of nodes searched.
+     */
+    public int getNodesSearched() {
+        return nodesSearched;
+    }
+
+    /**
+     * Records the distance of every goal index that refers to a settled cell.
+     */
+    private void settleGoal(int cell, double distance) {
+        for (int i = 0; i < goals.length; i++) {
+            if (goals[i] == cell) {
+                distances[i] = distance;
+                if (nearest < 0) {
+                    nearest = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the distinct goals in the start's component, so the search can stop once they are
+     * all settled instead of exhausting the component.
+     */
+    private int countReachableGoals() {
+        ConnectivityIndex index = graph.connectivity();
+        boolean current = index.getVersion() == graph.getVersion();
+        int count = 0;
+        for (int cell : goalCells) {
+            if (graph.isPassable(cell) && (!current || index.mayReach(start, cell))) {
+                count++;
+            }
+        }
+        return graph.isPassable(start) ? count : 0;
+    }
+
+    /**
+     * Gets the minimum heuristic estimate from a cell to any goal, or 0 without a heuristic.
+     */
+    private double estimate(HeuristicProvider heuristics, int cell) {
+        if (heuristics == null) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int goal : goalCells) {
+            best = Math.min(best, heuristics.estimate(cell, goal));
+        }
+        return best;
+    }
+
+    /**
+     * Gets a bucket queue when every priority is a small integer, the heap otherwise.
+     */
+    private OpenList chooseOpenList(HeuristicProvider heuristics) {
+        if (BucketQueue.supports(graph) && (heuristics == null || heuristics.isIntegral())) {
+            return state.getBucketQueue((int) (2 * graph.getMaxEdgeCost()));
+        }
+        return state.getOpenSet();
+    }
+}
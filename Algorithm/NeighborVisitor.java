@@ -0,0 +1,18 @@
+package Algorithm;
+
+/**
+ * Callback used to enumerate the neighbors of a cell without allocating.
+ * Graph.forEachNeighbor() and CompiledGraph.forEachNeighbor() call it once per
+ * outgoing edge, in the order up, right, down, left, then the teleportation destination.
+ */
+@FunctionalInterface
+public interface NeighborVisitor {
+
+    /**
+     * Called for each neighbor of the visited cell.
+     *
+     * @param neighbor The cell index (y * width + x) of the neighbor.
+     * @param cost     The cost of the edge to the neighbor.
+     */
+    void visit(int neighbor, double cost);
+}
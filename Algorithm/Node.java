@@ -1,18 +1,14 @@
 package Algorithm;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
- * Node class representing a point in the grid with coordinates and cost attributes.
- * This class is used in pathfinding algorithms like A* to represent nodes in the search space.
+ * Node class representing a point in the grid with coordinates.
+ * This class is used in pathfinding algorithms like A* to represent nodes in the search space;
+ * per-search values (g, f, parent) live in SearchState instead.
  */
 public class Node {
     int x, y; // Coordinates (if you're using a 2D grid)
-    double g, h, f; // g, h, and f values for A*
-    Node parent; // To store the path
-    List<Node> neighbors; // Adjacent nodes
 
     /**
      * Constructor for Node.
@@ -23,7 +19,6 @@ public class Node {
     public Node(int x, int y) {
         this.x = x;
         this.y = y;
-        this.neighbors = new ArrayList<>();
     }
 
     /**
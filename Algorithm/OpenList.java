@@ -0,0 +1,80 @@
+package Algorithm;
+
+/**
+ * Open set of a search: integer cell ids with priorities, where the id with the smallest
+ * priority is removed first and priorities can be lowered in place.
+ * IndexedMinHeap works for any priorities; BucketQueue is faster when they are small integers.
+ */
+public interface OpenList {
+    /**
+     * Checks if the list contains no ids.
+     *
+     * @return True if the list is empty, false otherwise.
+     */
+    boolean isEmpty();
+
+    /**
+     * Gets the number of ids currently in the list.
+     *
+     * @return The number of ids.
+     */
+    int size();
+
+    /**
+     * Checks if an id is currently in the list.
+     *
+     * @param id The id to check.
+     * @return True if the id is in the list, false otherwise.
+     */
+    boolean contains(int id);
+
+    /**
+     * Gets the current priority of an id in the list.
+     *
+     * @param id The id to look up.
+     * @return The priority of the id.
+     */
+    double keyOf(int id);
+
+    /**
+     * Inserts an id with the given priority.
+     *
+     * @param id  The id to insert, which must not be in the list.
+     * @param key The priority of the id.
+     */
+    void insert(int id, double key);
+
+    /**
+     * Inserts an id, or lowers its priority if it is already in the list with a larger one.
+     *
+     * @param id  The id to insert or update.
+     * @param key The priority of the id.
+     */
+    void insertOrDecrease(int id, double key);
+
+    /**
+     * Gets the id with the smallest priority without removing it.
+     *
+     * @return The id with the smallest priority.
+     */
+    int peek();
+
+    /**
+     * Gets the smallest priority in the list.
+     *
+     * @return The priority of the id returned by peek().
+     */
+    double peekKey();
+
+    /**
+     * Removes and returns the id with the smallest priority.
+     *
+     * @return The id with the smallest priority.
+     */
+    int poll();
+
+    /**
+     * Removes all ids from the list.
+     */
+    void clear();
+}
@@ -0,0 +1,494 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallel one-to-all searches for very large grids, run on a fork-join pool over a
+ * CompiledGraph, which is immutable and can be read by every worker.
+ * - breadthFirst() is a level-synchronous, direction-optimizing BFS (Beamer et al.): small
+ *   frontiers are expanded top-down, claiming successors with compare-and-set; once the
+ *   frontier's edges outnumber a fraction of the unexplored edges it switches to bottom-up steps,
+ *   where every unvisited cell looks for a predecessor in the frontier, and back when the
+ *   frontier shrinks again.
+ * - deltaStepping() (Meyer and Sanders) handles weighted graphs: cells are grouped in buckets of
+ *   width delta, and each bucket is settled by relaxing the edges of all its cells in parallel.
+ *
+ * Distances are accumulated in float, like the stored edge costs, so both searches return the
+ * same values as sequentialDistances(): every label-correcting order converges to the same
+ * least fixed point.
+ */
+public class ParallelSearch implements AutoCloseable {
+    /** Top-down switches to bottom-up when frontier edges exceed unexplored edges / ALPHA. */
+    public static final int ALPHA = 14;
+    /** Bottom-up switches back to top-down when the frontier is smaller than cells / BETA. */
+    public static final int BETA = 24;
+    private static final int MIN_CHUNK = 4096; // Smallest share of a work list handed to one task
+
+    private final CompiledGraph graph;
+    private final CompiledGraph reverse; // Predecessors, for bottom-up steps
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private int topDownSteps, bottomUpSteps; // Step counts of the last breadthFirst()
+
+    /**
+     * Constructor for ParallelSearch.
+     *
+     * @param graph       The compiled graph to search in.
+     * @param parallelism The number of worker threads.
+     */
+    public ParallelSearch(CompiledGraph graph, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.graph = graph;
+        this.reverse = graph.reversed();
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Computes the distance from a source to every cell, picking the search for the graph:
+     * breadth-first when every edge costs 1, delta-stepping with delta equal to the largest
+     * edge cost otherwise.
+     *
+     * @param source The source cell index.
+     * @return The distance per cell index, or positive infinity for unreachable cells.
+     */
+    public float[] distances(int source) {
+        if (graph.hasUniformCosts()) {
+            int[] levels = breadthFirst(source);
+            float[] result = new float[levels.length];
+            parallelFor(chunksFor(levels.length), levels.length, (from, to) -> {
+                for (int cell = from; cell < to; cell++) {
+                    result[cell] = levels[cell] < 0 ? Float.POSITIVE_INFINITY : levels[cell];
+                }
+            });
+            return result;
+        }
+        return deltaStepping(source, Math.max(1, graph.getMaxEdgeCost()));
+    }
+
+    /**
+     * Counts the edges on a shortest path from a source to every cell, ignoring edge costs.
+     *
+     * @param source The source cell index.
+     * @return The number of edges per cell index, or -1 for unreachable cells.
+     */
+    public int[] breadthFirst(int source) {
+        int cellCount = graph.getCellCount();
+        AtomicIntegerArray level = new AtomicIntegerArray(cellCount); // Level + 1, or 0 if unseen
+        topDownSteps = 0;
+        bottomUpSteps = 0;
+        if (graph.isPassable(source)) {
+            level.set(source, 1);
+            int[] frontier = { source };
+            long frontierEdges = graph.degree(source);
+            long unexploredEdges = graph.getEdgeCount() - frontierEdges;
+            int vertexCount = graph.getVertexCount();
+            boolean bottomUp = false;
+            int depth = 1;
+            while (frontier.length > 0) {
+                if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                    bottomUp = true;
+                } else if (bottomUp && frontier.length < vertexCount / BETA) {
+                    bottomUp = false;
+                }
+                int[][] found;
+                if (bottomUp) {
+                    found = bottomUpStep(level, depth);
+                    bottomUpSteps++;
+                } else {
+                    found = topDownStep(level, frontier, depth);
+                    topDownSteps++;
+                }
+                frontier = concat(found);
+                frontierEdges = 0;
+                for (int cell : frontier) {
+                    frontierEdges += graph.degree(cell);
+                }
+                unexploredEdges -= frontierEdges;
+                depth++;
+            }
+        }
+        int[] result = new int[cellCount];
+        parallelFor(chunksFor(cellCount), cellCount, (from, to) -> {
+            for (int cell = from; cell < to; cell++) {
+                result[cell] = level.get(cell) - 1;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Expands every frontier cell, claiming its unvisited successors.
+     */
+    private int[][] topDownStep(AtomicIntegerArray level, int[] frontier, int depth) {
+        int chunks = chunksFor(frontier.length);
+        int[][] found = new int[chunks][];
+        parallelChunks(chunks, chunk -> {
+            int from = (int) ((long) frontier.length * chunk / chunks);
+            int to = (int) ((long) frontier.length * (chunk + 1) / chunks);
+            IntBuffer local = new IntBuffer();
+            int[] successors = new int[graph.getMaxDegree()];
+            for (int i = from; i < to; i++) {
+                for (int j = 0, count = graph.neighbors(frontier[i], successors, null); j < count; j++) {
+                    int target = successors[j];
+                    if (level.get(target) == 0 && level.compareAndSet(target, 0, depth + 1)) {
+                        local.add(target);
+                    }
+                }
+            }
+            found[chunk] = local.toArray();
+        });
+        return found;
+    }
+
+    /**
+     * Lets every unvisited cell look for a predecessor in the frontier. Each cell is written by
+     * the one task that owns it, so no compare-and-set is needed.
+     */
+    private int[][] bottomUpStep(AtomicIntegerArray level, int depth) {
+        int cellCount = graph.getCellCount();
+        int chunks = chunksFor(cellCount);
+        int[][] found = new int[chunks][];
+        parallelChunks(chunks, chunk -> {
+            int from = (int) ((long) cellCount * chunk / chunks);
+            int to = (int) ((long) cellCount * (chunk + 1) / chunks);
+            IntBuffer local = new IntBuffer();
+            int[] predecessors = new int[reverse.getMaxDegree()];
+            for (int cell = from; cell < to; cell++) {
+                if (level.get(cell) != 0 || !graph.isPassable(cell)) {
+                    continue;
+                }
+                for (int j = 0, count = reverse.neighbors(cell, predecessors, null); j < count; j++) {
+                    if (level.get(predecessors[j]) == depth) {
+                        level.set(cell, depth + 1);
+                        local.add(cell);
+                        break;
+                    }
+                }
+            }
+            found[chunk] = local.toArray();
+        });
+        return found;
+    }
+
+    /**
+     * Computes the cost of the cheapest path from a source to every cell with delta-stepping.
+     * Edges up to delta are light and relaxed repeatedly while a bucket is settled; heavier
+     * edges are relaxed once per bucket afterwards.
+     *
+     * @param source The source cell index.
+     * @param delta  The bucket width; the largest edge cost is a good default.
+     * @return The distance per cell index, or positive infinity for unreachable cells.
+     */
+    public float[] deltaStepping(int source, double delta) {
+        if (!(delta > 0)) {
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+        }
+        int cellCount = graph.getCellCount();
+        AtomicIntegerArray distance = new AtomicIntegerArray(cellCount); // Float bits of each distance
+        int infinity = Float.floatToIntBits(Float.POSITIVE_INFINITY);
+        parallelFor(chunksFor(cellCount), cellCount, (from, to) -> {
+            for (int cell = from; cell < to; cell++) {
+                distance.set(cell, infinity);
+            }
+        });
+        if (graph.isPassable(source)) {
+            distance.set(source, Float.floatToIntBits(0));
+            IntBuffer[] buckets = { new IntBuffer() };
+            buckets[0].add(source);
+            int[] stamp = new int[cellCount]; // Round in which a cell was last queued, to drop duplicates
+            int round = 0;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                IntBuffer settled = new IntBuffer();
+                while (buckets[bucket] != null && buckets[bucket].size() > 0) {
+                    round++;
+                    int[] entries = buckets[bucket].toArray();
+                    buckets[bucket] = null;
+                    int count = 0;
+                    for (int cell : entries) {
+                        // Skip cells queued twice and cells that have since moved to a lower bucket
+                        if (stamp[cell] != round && bucketOf(distance.get(cell), delta) == bucket) {
+                            stamp[cell] = round;
+                            entries[count++] = cell;
+                        }
+                    }
+                    int[] current = Arrays.copyOf(entries, count);
+                    settled.addAll(current);
+                    buckets = distribute(relax(distance, current, delta, true), distance, delta, buckets);
+                }
+                buckets = distribute(relax(distance, settled.toArray(), delta, false), distance, delta, buckets);
+            }
+        }
+        float[] result = new float[cellCount];
+        parallelFor(chunksFor(cellCount), cellCount, (from, to) -> {
+            for (int cell = from; cell < to; cell++) {
+                result[cell] = Float.intBitsToFloat(distance.get(cell));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Relaxes the light or heavy edges of a set of cells in parallel.
+     *
+     * @return Per chunk, the cells whose distance was lowered.
+     */
+    private int[][] relax(AtomicIntegerArray distance, int[] cells, double delta, boolean light) {
+        int chunks = chunksFor(cells.length);
+        int[][] improved = new int[chunks][];
+        parallelChunks(chunks, chunk -> {
+            int from = (int) ((long) cells.length * chunk / chunks);
+            int to = (int) ((long) cells.length * (chunk + 1) / chunks);
+            IntBuffer local = new IntBuffer();
+            int[] targets = new int[graph.getMaxDegree()];
+            double[] costs = new double[targets.length];
+            for (int i = from; i < to; i++) {
+                int cell = cells[i];
+                float base = Float.intBitsToFloat(distance.get(cell));
+                for (int j = 0, count = graph.neighbors(cell, targets, costs); j < count; j++) {
+                    float cost = (float) costs[j];
+                    if ((cost <= delta) == light && lower(distance, targets[j], base + cost)) {
+                        local.add(targets[j]);
+                    }
+                }
+            }
+            improved[chunk] = local.toArray();
+        });
+        return improved;
+    }
+
+    /**
+     * Lowers the distance of a cell with compare-and-set. Non-negative floats order like
+     * their bit patterns, so the bits can be compared as ints.
+     *
+     * @return True if the distance was lowered.
+     */
+    private static boolean lower(AtomicIntegerArray distance, int cell, float value) {
+        int bits = Float.floatToIntBits(value);
+        while (true) {
+            int current = distance.get(cell);
+            if (current <= bits) {
+                return false;
+            }
+            if (distance.compareAndSet(cell, current, bits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Puts improved cells into the bucket of their current distance, growing the bucket array.
+     */
+    private static IntBuffer[] distribute(int[][] improved, AtomicIntegerArray distance, double delta,
+            IntBuffer[] buckets) {
+        for (int[] part : improved) {
+            for (int cell : part) {
+                int bucket = bucketOf(distance.get(cell), delta);
+                if (bucket >= buckets.length) {
+                    buckets = Arrays.copyOf(buckets, Math.max(bucket + 1, buckets.length * 2));
+                }
+                if (buckets[bucket] == null) {
+                    buckets[bucket] = new IntBuffer();
+                }
+                buckets[bucket].add(cell);
+            }
+        }
+        return buckets;
+    }
+
+    private static int bucketOf(int distanceBits, double delta) {
+        return (int) (Float.intBitsToFloat(distanceBits) / delta);
+    }
+
+    /**
+     * Computes the same distances as distances() with a single-threaded search: breadth-first
+     * on uniform graphs, Dijkstra otherwise, accumulating in float.
+     *
+     * @param graph  The compiled graph.
+     * @param source The source cell index.
+     * @return The distance per cell index, or positive infinity for unreachable cells.
+     */
+    public static float[] sequentialDistances(CompiledGraph graph, int source) {
+        int cellCount = graph.getCellCount();
+        float[] distance = new float[cellCount];
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        if (!graph.isPassable(source)) {
+            return distance;
+        }
+        distance[source] = 0;
+        int[] targets = new int[graph.getMaxDegree()];
+        double[] costs = new double[targets.length];
+        if (graph.hasUniformCosts()) {
+            int[] queue = new int[cellCount];
+            int head = 0, tail = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int cell = queue[head++];
+                for (int i = 0, count = graph.neighbors(cell, targets, null); i < count; i++) {
+                    int target = targets[i];
+                    if (distance[target] == Float.POSITIVE_INFINITY) {
+                        distance[target] = distance[cell] + 1;
+                        queue[tail++] = target;
+                    }
+                }
+            }
+            return distance;
+        }
+        IndexedMinHeap heap = new IndexedMinHeap(cellCount);
+        heap.insert(source, 0);
+        while (!heap.isEmpty()) {
+            int cell = heap.poll();
+            for (int i = 0, count = graph.neighbors(cell, targets, costs); i < count; i++) {
+                int target = targets[i];
+                float value = distance[cell] + (float) costs[i];
+                if (value < distance[target]) {
+                    distance[target] = value;
+                    heap.insertOrDecrease(target, value);
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Gets the number of top-down steps taken by the last breadthFirst().
+     *
+     * @return The number of top-down steps.
+     */
+    public int getTopDownSteps() {
+        return topDownSteps;
+    }
+
+    /**
+     * Gets the number of bottom-up steps taken by the last breadthFirst().
+     *
+     * @return The number of bottom-up steps.
+     */
+    public int getBottomUpSteps() {
+        return bottomUpSteps;
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return The parallelism.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Shuts down the worker pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private int chunksFor(int work) {
+        return Math.max(1, Math.min(work / MIN_CHUNK, 4 * parallelism));
+    }
+
+    /**
+     * Runs a task for every chunk index on the pool, or inline if there is only one.
+     */
+    private void parallelChunks(int chunks, IntConsumer task) {
+        if (chunks == 1) {
+            task.accept(0);
+        } else {
+            pool.invoke(new ChunkTask(0, chunks, task));
+        }
+    }
+
+    /**
+     * Splits [0, size) into chunks and runs a range task on each.
+     */
+    private void parallelFor(int chunks, int size, RangeTask task) {
+        parallelChunks(chunks, chunk -> task.run((int) ((long) size * chunk / chunks),
+                (int) ((long) size * (chunk + 1) / chunks)));
+    }
+
+    private static int[] concat(int[][] parts) {
+        int total = 0;
+        for (int[] part : parts) {
+            total += part.length;
+        }
+        int[] result = new int[total];
+        total = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, total, part.length);
+            total += part.length;
+        }
+        return result;
+    }
+
+    /**
+     * Work on a range of cell indices.
+     */
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Fork-join task that halves a range of chunk indices until one is left.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final IntConsumer task;
+
+        ChunkTask(int from, int to, IntConsumer task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                task.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, middle, task), new ChunkTask(middle, to, task));
+        }
+    }
+
+    /**
+     * Growable int list, used for per-task results and buckets.
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(int[] more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
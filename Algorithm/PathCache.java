@@ -0,0 +1,242 @@
+package Algorithm;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of search results, keyed by (graph version, algorithm, start, goal).
+ * Paths are stored as int cell-index arrays, and "no path" results are cached too. Since the
+ * graph version changes on every modification, results for an old version are never returned;
+ * they simply age out of the cache.
+ * The memory budget counts the path arrays plus a fixed per-entry overhead, and the least
+ * recently used entries are evicted to stay within it. The cache is thread-safe; searches on
+ * a miss run outside the lock, so concurrent misses on different keys do not wait for each other.
+ */
+public class PathCache {
+    private static final long ENTRY_OVERHEAD = 96; // Approximate bytes per entry besides the path array
+    /** Returned by get() when the cached result is that no path exists. */
+    public static final int[] NO_PATH = new int[0];
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, int[]> entries = new LinkedHashMap<>(16, 0.75f, true); // Access order
+    private long usedBytes;
+    private long hits, misses, evictions;
+
+    /**
+     * Constructor for PathCache.
+     *
+     * @param maxBytes The memory budget for cached paths, in bytes.
+     */
+    public PathCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Finds a path on a graph, using the cached result if the graph has not changed since.
+     *
+     * @param algorithm The algorithm name, see AlgorithmFactory.getAlgorithmNames().
+     * @param graph     The graph to search in.
+     * @param start     The starting node.
+     * @param goal      The goal node.
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    public int[] findPath(String algorithm, Graph graph, Node start, Node goal) {
+        return findPath(algorithm, graph.compile(), graph.getIndex(start.x, start.y), graph.getIndex(goal.x, goal.y),
+                graph.getSearchState());
+    }
+
+    /**
+     * Finds a path on a compiled graph, using the cached result for its version if there is one.
+     *
+     * @param algorithm The algorithm name, see AlgorithmFactory.getAlgorithmNames().
+     * @param graph     The compiled graph to search in.
+     * @param start     The starting cell index.
+     * @param goal      The goal cell index.
+     * @param state     The search state to use on a miss.
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    public int[] findPath(String algorithm, CompiledGraph graph, int start, int goal, SearchState state) {
+        int[] cached = get(graph.getVersion(), algorithm, start, goal);
+        if (cached != null) {
+            return cached == NO_PATH ? null : cached;
+        }
+        int[] path = AlgorithmFactory.createAlgorithm(algorithm, graph, start, goal, state).searchCells();
+        put(graph.getVersion(), algorithm, start, goal, path);
+        return path;
+    }
+
+    /**
+     * Looks up a cached result and counts the hit or miss.
+     *
+     * @param version   The graph version, see Graph.getVersion().
+     * @param algorithm The algorithm name.
+     * @param start     The starting cell index.
+     * @param goal      The goal cell index.
+     * @return A copy of the cached path, NO_PATH if "no path" was cached, or null on a miss.
+     */
+    public int[] get(long version, String algorithm, int start, int goal) {
+        int[] path;
+        synchronized (this) {
+            path = entries.get(new Key(version, algorithm, start, goal));
+            if (path == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        return path == NO_PATH ? NO_PATH : path.clone();
+    }
+
+    /**
+     * Adds a result and evicts least recently used entries until the cache fits its budget.
+     *
+     * @param version   The graph version the path was found on.
+     * @param algorithm The algorithm name.
+     * @param start     The starting cell index.
+     * @param goal      The goal cell index.
+     * @param path      The cell indices from start to goal, or null if no path exists.
+     */
+    public void put(long version, String algorithm, int start, int goal, int[] path) {
+        int[] stored = path == null ? NO_PATH : path.clone();
+        long size = sizeOf(stored);
+        if (size > maxBytes) {
+            return; // Would evict everything else and still not fit
+        }
+        Key key = new Key(version, algorithm, start, goal);
+        synchronized (this) {
+            int[] previous = entries.put(key, stored);
+            if (previous != null) {
+                usedBytes -= sizeOf(previous); // Another thread found the same path meanwhile
+            }
+            usedBytes += size;
+            Iterator<Map.Entry<Key, int[]>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes) {
+                Map.Entry<Key, int[]> entry = eldest.next();
+                usedBytes -= sizeOf(entry.getValue());
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    private static long sizeOf(int[] path) {
+        return ENTRY_OVERHEAD + 4L * path.length;
+    }
+
+    /**
+     * Removes every entry. The metrics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to run a search.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of entries evicted to stay within the memory budget.
+     *
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the fraction of lookups answered from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 if there were no lookups.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Gets the number of cached results.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the estimated memory used by the cached results.
+     *
+     * @return The used bytes, at most the budget.
+     */
+    public synchronized long getMemoryUsage() {
+        return usedBytes;
+    }
+
+    /**
+     * Gets the memory budget.
+     *
+     * @return The maximum bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("PathCache[entries=%d, bytes=%d/%d, hits=%d, misses=%d, evictions=%d]", entries.size(),
+                usedBytes, maxBytes, hits, misses, evictions);
+    }
+
+    /**
+     * Cache key: graph version, algorithm name, start and goal cell.
+     */
+    private static final class Key {
+        private final long version;
+        private final String algorithm;
+        private final int start, goal;
+
+        Key(long version, String algorithm, int start, int goal) {
+            this.version = version;
+            this.algorithm = algorithm;
+            this.start = start;
+            this.goal = goal;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Key other = (Key) obj;
+            return version == other.version && start == other.start && goal == other.goal
+                    && algorithm.equals(other.algorithm);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Long.hashCode(version);
+            hash = 31 * hash + algorithm.hashCode();
+            hash = 31 * hash + start;
+            return 31 * hash + goal;
+        }
+    }
+}
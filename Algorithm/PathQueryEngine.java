@@ -0,0 +1,203 @@
+package Algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe engine for running many path queries against one map in parallel.
+ * The graph is compiled once into an immutable CompiledGraph that all workers share
+ * read-only; each query borrows a SearchState from a pool, so concurrent searches never
+ * write to shared data.
+ */
+public class PathQueryEngine implements AutoCloseable {
+    private static final int BATCH_SIZE = 16; // Queries claimed per step, balances load vs. contention
+
+    private final CompiledGraph graph;
+    private final String algorithm;
+    private final int threads;
+    private final ExecutorService workers;
+    private final ConcurrentLinkedQueue<SearchState> statePool = new ConcurrentLinkedQueue<>();
+    private volatile PathCache cache; // Optional result cache consulted before every search
+
+    /**
+     * Constructor for PathQueryEngine.
+     * The graph is compiled immediately; later changes to it are not seen by this engine.
+     *
+     * @param graph     The graph to route on.
+     * @param algorithm The algorithm name, see AlgorithmFactory.getAlgorithmNames().
+     * @param threads   The number of worker threads.
+     */
+    public PathQueryEngine(Graph graph, String algorithm, int threads) {
+        this(graph.compile(), algorithm, threads);
+    }
+
+    /**
+     * Constructor for PathQueryEngine on an already compiled graph.
+     *
+     * @param graph     The compiled graph to route on.
+     * @param algorithm The algorithm name, see AlgorithmFactory.getAlgorithmNames().
+     * @param threads   The number of worker threads.
+     */
+    public PathQueryEngine(CompiledGraph graph, String algorithm, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.graph = graph;
+        this.algorithm = algorithm;
+        this.threads = threads;
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "path-query-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the compiled graph shared by all queries.
+     *
+     * @return The compiled graph.
+     */
+    public CompiledGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Puts a result cache in front of the searches. Results are keyed by the compiled graph's
+     * version, so one cache can be shared by engines on different graphs.
+     *
+     * @param cache The cache to use, or null to search every query.
+     */
+    public void setPathCache(PathCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Finds a single path on the calling thread.
+     *
+     * @param start The starting cell index.
+     * @param goal  The goal cell index.
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    public int[] findPath(int start, int goal) {
+        SearchState state = acquireState();
+        try {
+            return query(start, goal, state, null, 0);
+        } finally {
+            statePool.offer(state);
+        }
+    }
+
+    /**
+     * Finds paths for many start/goal pairs in parallel and waits for all of them.
+     *
+     * @param starts The starting cell indices.
+     * @param goals  The goal cell indices, one per start.
+     * @return The paths as cell indices, with null where no path exists.
+     */
+    public int[][] findPaths(int[] starts, int[] goals) {
+        return findPaths(starts, goals, null);
+    }
+
+    /**
+     * Finds paths for many start/goal pairs in parallel and waits for all of them.
+     *
+     * @param starts        The starting cell indices.
+     * @param goals         The goal cell indices, one per start.
+     * @param nodesSearched If not null, receives the number of nodes searched per query.
+     * @return The paths as cell indices, with null where no path exists.
+     */
+    public int[][] findPaths(int[] starts, int[] goals, int[] nodesSearched) {
+        if (starts.length != goals.length) {
+            throw new IllegalArgumentException("starts and goals must have the same length");
+        }
+        int[][] paths = new int[starts.length][];
+        AtomicInteger next = new AtomicInteger();
+        int tasks = Math.min(threads, (starts.length + BATCH_SIZE - 1) / BATCH_SIZE);
+
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            futures.add(workers.submit(() -> {
+                SearchState state = acquireState();
+                try {
+                    int first;
+                    while ((first = next.getAndAdd(BATCH_SIZE)) < starts.length) {
+                        int last = Math.min(first + BATCH_SIZE, starts.length);
+                        for (int i = first; i < last; i++) {
+                            paths[i] = query(starts[i], goals[i], state, nodesSearched, i);
+                        }
+                    }
+                } finally {
+                    statePool.offer(state);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for path queries", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Path query failed", e.getCause());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Answers one query from the cache, or by searching and caching the result.
+     *
+     * @param start         The starting cell index.
+     * @param goal          The goal cell index.
+     * @param state         The search state owned by the calling worker.
+     * @param nodesSearched If not null, receives the number of nodes searched (0 on a cache hit).
+     * @param index         The position in nodesSearched to write.
+     * @return The cell indices from start to goal, or null if no path exists.
+     */
+    private int[] query(int start, int goal, SearchState state, int[] nodesSearched, int index) {
+        PathCache pathCache = cache;
+        if (pathCache != null) {
+            int[] cached = pathCache.get(graph.getVersion(), algorithm, start, goal);
+            if (cached != null) {
+                if (nodesSearched != null) {
+                    nodesSearched[index] = 0;
+                }
+                return cached == PathCache.NO_PATH ? null : cached;
+            }
+        }
+        AStar search = AlgorithmFactory.createAlgorithm(algorithm, graph, start, goal, state);
+        int[] path = search.searchCells();
+        if (nodesSearched != null) {
+            nodesSearched[index] = search.getNodesSearched();
+        }
+        if (pathCache != null) {
+            pathCache.put(graph.getVersion(), algorithm, start, goal, path);
+        }
+        return path;
+    }
+
+    /**
+     * Takes a search state from the pool, or creates one if all are in use.
+     *
+     * @return A search state owned by the caller until it is returned to the pool.
+     */
+    private SearchState acquireState() {
+        SearchState state = statePool.poll();
+        return state != null ? state : new SearchState(graph.getCellCount());
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
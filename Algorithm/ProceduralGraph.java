@@ -0,0 +1,302 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unbounded procedural grid: every int coordinate pair is a cell, and nothing is stored per cell.
+ * Whether a cell is blocked or a teleport candidate comes from a hash of (seed, x, y), so any
+ * cell can be computed on demand and always comes out the same.
+ * Cells are grouped into CHUNK_SIZE x CHUNK_SIZE chunks. A chunk is built when a search first
+ * touches it: its blocked bits, its teleportation links (the candidates of a chunk are shuffled
+ * by hash and linked in pairs both ways, so both ends of a link lie in the same chunk) and a
+ * lower bound on each cell's distance to a teleport endpoint, which keeps the search heuristic
+ * admissible. Built chunks are kept in an LRU cache of bounded size; an evicted chunk is simply
+ * built again when needed, so memory does not grow with the distance travelled. The graph is
+ * immutable and thread-safe.
+ * Steps and teleports both cost 1, and there is no wrap-around. Search it with ProceduralSearch.
+ */
+public class ProceduralGraph {
+    /** Width and height of a chunk, in cells; one long holds a chunk row of blocked bits. */
+    public static final int CHUNK_SIZE = 64;
+    /** Number of chunks cached when no limit is given, about 13 MB. */
+    public static final int DEFAULT_CACHED_CHUNKS = 1024;
+    /** Approximate bytes of one cached chunk. */
+    public static final long CHUNK_BYTES = 8L * CHUNK_SIZE + 3L * CHUNK_SIZE * CHUNK_SIZE + 96;
+    static final int CHUNK_SHIFT = 6; // log2(CHUNK_SIZE)
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long seed;
+    private final double blockedPercent, teleportPercent;
+    private final int maxCachedChunks;
+    private final LinkedHashMap<Long, Chunk> chunks; // Access order, least recently used first
+    private long chunksBuilt; // Including chunks built again after eviction
+
+    /**
+     * Constructor for ProceduralGraph, caching up to DEFAULT_CACHED_CHUNKS chunks.
+     *
+     * @param seed            Seed of the cell hash.
+     * @param blockedPercent  Fraction of cells to be blocked.
+     * @param teleportPercent Fraction of cells to be teleportation nodes.
+     */
+    public ProceduralGraph(long seed, double blockedPercent, double teleportPercent) {
+        this(seed, blockedPercent, teleportPercent, DEFAULT_CACHED_CHUNKS);
+    }
+
+    /**
+     * Constructor for ProceduralGraph.
+     *
+     * @param seed            Seed of the cell hash.
+     * @param blockedPercent  Fraction of cells to be blocked.
+     * @param teleportPercent Fraction of cells to be teleportation nodes.
+     * @param maxCachedChunks Number of chunks kept in memory; at least 1.
+     */
+    public ProceduralGraph(long seed, double blockedPercent, double teleportPercent, int maxCachedChunks) {
+        if (!(blockedPercent >= 0) || !(teleportPercent >= 0) || !(blockedPercent + teleportPercent <= 1)) {
+            throw new IllegalArgumentException(
+                    "Invalid blocked/teleport fractions: " + blockedPercent + ", " + teleportPercent);
+        }
+        if (maxCachedChunks < 1) {
+            throw new IllegalArgumentException("maxCachedChunks must be positive");
+        }
+        this.seed = seed;
+        this.blockedPercent = blockedPercent;
+        this.teleportPercent = teleportPercent;
+        this.maxCachedChunks = maxCachedChunks;
+        this.chunks = new LinkedHashMap<Long, Chunk>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                return size() > ProceduralGraph.this.maxCachedChunks;
+            }
+        };
+    }
+
+    /**
+     * Checks if a cell is blocked. This only hashes the cell and never builds a chunk.
+     *
+     * @param x X-coordinate of the cell.
+     * @param y Y-coordinate of the cell.
+     * @return True if the cell is blocked, false otherwise.
+     */
+    public boolean isBlocked(int x, int y) {
+        return cellValue(x, y) < blockedPercent;
+    }
+
+    /**
+     * Gets the teleportation destination of a cell.
+     *
+     * @param node The cell.
+     * @return The linked cell, or null if the cell is not a teleportation node.
+     */
+    public Node getTeleportDestination(Node node) {
+        Chunk chunk = chunk(node.x >> CHUNK_SHIFT, node.y >> CHUNK_SHIFT);
+        int target = chunk.teleportTarget(localIndex(node.x, node.y));
+        if (target < 0) {
+            return null;
+        }
+        return new Node((node.x & ~CHUNK_MASK) | (target & CHUNK_MASK),
+                (node.y & ~CHUNK_MASK) | (target >>> CHUNK_SHIFT));
+    }
+
+    /**
+     * Gets the chunk with the given chunk coordinates, building it if it is not cached.
+     *
+     * @param cx Chunk x-coordinate (cell x / CHUNK_SIZE, rounded down).
+     * @param cy Chunk y-coordinate (cell y / CHUNK_SIZE, rounded down).
+     * @return The chunk.
+     */
+    Chunk chunk(int cx, int cy) {
+        Long key = ((long) cx << 32) | (cy & 0xffffffffL);
+        synchronized (chunks) {
+            Chunk chunk = chunks.get(key);
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        // Build outside the lock; a chunk built twice by racing threads is identical
+        Chunk chunk = new Chunk(this, cx, cy);
+        synchronized (chunks) {
+            chunksBuilt++;
+            Chunk raced = chunks.putIfAbsent(key, chunk);
+            return raced != null ? raced : chunk;
+        }
+    }
+
+    /**
+     * Gets the index of a cell within its chunk.
+     */
+    static int localIndex(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+
+    /**
+     * Hashes a cell to a uniform value in [0, 1); below blockedPercent the cell is blocked,
+     * below blockedPercent + teleportPercent it is a teleport candidate.
+     */
+    private double cellValue(int x, int y) {
+        return (hash(x, y) >>> 11) * 0x1.0p-53;
+    }
+
+    private long hash(int x, int y) {
+        return GridGenerator.mix(seed + x * 0x9e3779b97f4a7c15L + y * 0xc2b2ae3d27d4eb4fL);
+    }
+
+    /**
+     * Gets the seed of the cell hash.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the fraction of blocked cells.
+     *
+     * @return The blocked fraction.
+     */
+    public double getBlockedPercent() {
+        return blockedPercent;
+    }
+
+    /**
+     * Gets the fraction of teleportation cells.
+     *
+     * @return The teleport fraction.
+     */
+    public double getTeleportPercent() {
+        return teleportPercent;
+    }
+
+    /**
+     * Gets the number of chunks kept in memory at most.
+     *
+     * @return The cache size.
+     */
+    public int getMaxCachedChunks() {
+        return maxCachedChunks;
+    }
+
+    /**
+     * Gets the number of chunks currently cached.
+     *
+     * @return The number of cached chunks.
+     */
+    public int getCachedChunkCount() {
+        synchronized (chunks) {
+            return chunks.size();
+        }
+    }
+
+    /**
+     * Gets the number of chunks built so far; chunks built again after eviction count again.
+     *
+     * @return The number of chunk builds.
+     */
+    public long getChunksBuilt() {
+        synchronized (chunks) {
+            return chunksBuilt;
+        }
+    }
+
+    /**
+     * Gets the approximate memory used by the cached chunks.
+     *
+     * @return The size in bytes.
+     */
+    public long getMemoryFootprint() {
+        return getCachedChunkCount() * CHUNK_BYTES;
+    }
+
+    /**
+     * One CHUNK_SIZE x CHUNK_SIZE block of cells, indexed by localIndex().
+     */
+    static final class Chunk {
+        private final long[] blockedRows; // Blocked bits, one long per row
+        private final short[] teleportTargets; // Local index of the linked cell, or -1
+        private final byte[] teleportDistance; // Lower bound on the distance to any teleport endpoint
+
+        Chunk(ProceduralGraph graph, int cx, int cy) {
+            int cells = CHUNK_SIZE * CHUNK_SIZE;
+            blockedRows = new long[CHUNK_SIZE];
+            teleportTargets = new short[cells];
+            Arrays.fill(teleportTargets, (short) -1);
+            long[] candidates = new long[16];
+            int count = 0;
+            int baseX = cx << CHUNK_SHIFT;
+            int baseY = cy << CHUNK_SHIFT;
+            for (int local = 0; local < cells; local++) {
+                int x = baseX | (local & CHUNK_MASK);
+                int y = baseY | (local >>> CHUNK_SHIFT);
+                long hash = graph.hash(x, y);
+                double value = (hash >>> 11) * 0x1.0p-53;
+                if (value < graph.blockedPercent) {
+                    blockedRows[local >>> CHUNK_SHIFT] |= 1L << (local & CHUNK_MASK);
+                } else if (value < graph.blockedPercent + graph.teleportPercent) {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                    }
+                    // Shuffle by sorting on a second hash; the local index in the low bits breaks ties
+                    candidates[count++] = (GridGenerator.mix(hash) & 0xffffffffffff0000L) | local;
+                }
+            }
+            Arrays.sort(candidates, 0, count);
+            for (int i = 0; i + 1 < count; i += 2) { // With an odd count the last candidate stays unlinked
+                int a = (int) (candidates[i] & 0xffff);
+                int b = (int) (candidates[i + 1] & 0xffff);
+                teleportTargets[a] = (short) b;
+                teleportTargets[b] = (short) a;
+            }
+            teleportDistance = teleportDistances(teleportTargets);
+        }
+
+        /**
+         * Computes, for each cell, the wall-free distance to the nearest teleport endpoint of
+         * this chunk, capped by one more than the distance to the chunk edge, since an endpoint
+         * in another chunk is at least that far. Two passes of an L1 distance transform.
+         */
+        private static byte[] teleportDistances(short[] teleportTargets) {
+            byte[] distance = new byte[CHUNK_SIZE * CHUNK_SIZE];
+            for (int local = 0; local < distance.length; local++) {
+                int x = local & CHUNK_MASK;
+                int y = local >>> CHUNK_SHIFT;
+                int toEdge = Math.min(Math.min(x, CHUNK_MASK - x), Math.min(y, CHUNK_MASK - y));
+                distance[local] = (byte) (teleportTargets[local] >= 0 ? 0 : toEdge + 1);
+            }
+            for (int local = 0; local < distance.length; local++) {
+                int d = distance[local];
+                if ((local & CHUNK_MASK) > 0) {
+                    d = Math.min(d, distance[local - 1] + 1);
+                }
+                if (local >= CHUNK_SIZE) {
+                    d = Math.min(d, distance[local - CHUNK_SIZE] + 1);
+                }
+                distance[local] = (byte) d;
+            }
+            for (int local = distance.length - 1; local >= 0; local--) {
+                int d = distance[local];
+                if ((local & CHUNK_MASK) < CHUNK_MASK) {
+                    d = Math.min(d, distance[local + 1] + 1);
+                }
+                if (local < distance.length - CHUNK_SIZE) {
+                    d = Math.min(d, distance[local + CHUNK_SIZE] + 1);
+                }
+                distance[local] = (byte) d;
+            }
+            return distance;
+        }
+
+        boolean isBlocked(int local) {
+            return (blockedRows[local >>> CHUNK_SHIFT] & (1L << (local & CHUNK_MASK))) != 0;
+        }
+
+        int teleportTarget(int local) {
+            return teleportTargets[local];
+        }
+
+        int teleportDistance(int local) {
+            return teleportDistance[local];
+        }
+    }
+}
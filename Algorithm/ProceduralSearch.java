@@ -0,0 +1,322 @@
+package Algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A* search on a ProceduralGraph.
+ * Cells have no dense index on an unbounded grid, so each cell the search discovers gets the next
+ * id from an open-addressing table keyed by its packed coordinates, and the g/parent/closed
+ * arrays and the open heap grow with the number of ids. Memory is therefore proportional to the
+ * explored region, not to the map. The search also keeps the chunks it has touched until it
+ * ends, so a frontier wider than the graph's chunk cache does not make chunks be rebuilt over and
+ * over; the cache then only carries chunks from one search to the next.
+ * The heuristic is the larger of two consistent lower bounds: the number of chunk borders
+ * between the cell and the goal, since a teleport never leaves its chunk, and the bound
+ * HeuristicProvider uses, min(Manhattan distance, d(a) + 1 + d(goal)) with d the chunk's lower
+ * bound on the distance to a teleport endpoint. Without teleports it is Manhattan distance.
+ * On an unbounded map an enclosed goal would never be ruled out, so the search gives up after
+ * maxExpanded expansions.
+ */
+public class ProceduralSearch {
+    /** Expansion limit when none is given. */
+    public static final int DEFAULT_MAX_EXPANDED = 10_000_000;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final ProceduralGraph graph;
+    private final Node start, goal;
+    private final int maxExpanded;
+    private final boolean teleports; // False if the graph has no teleportation links; the heuristic is then Manhattan distance
+    private int nodesSearched;
+    private boolean limitReached; // True if the last search gave up
+    private int goalDistance; // Teleport distance bound of the goal cell
+
+    private long[] tableKeys; // Open-addressing table: packed coordinates
+    private int[] tableIds; // Id + 1 of the packed coordinates in the same slot, 0 if empty
+    private long[] cells; // Packed coordinates of each id
+    private double[] g; // Cost from the start of each id
+    private int[] parent; // Parent id, or -1
+    private boolean[] closed;
+    private int size; // Number of ids handed out
+    private int cellsDiscovered; // Ids handed out by the last search
+    private IndexedMinHeap open;
+
+    private Map<Long, ProceduralGraph.Chunk> chunks; // Chunks touched by this search, by packed chunk coordinates
+    private ProceduralGraph.Chunk chunk; // Last chunk looked up, most neighbors share it
+    private int chunkX, chunkY;
+
+    /**
+     * Constructor for ProceduralSearch with the default expansion limit.
+     *
+     * @param graph The procedural graph to search in.
+     * @param start The starting cell.
+     * @param goal  The goal cell.
+     */
+    public ProceduralSearch(ProceduralGraph graph, Node start, Node goal) {
+        this(graph, start, goal, DEFAULT_MAX_EXPANDED);
+    }
+
+    /**
+     * Constructor for ProceduralSearch.
+     *
+     * @param graph       The procedural graph to search in.
+     * @param start       The starting cell.
+     * @param goal        The goal cell.
+     * @param maxExpanded The number of expansions after which the search gives up; at least 1.
+     */
+    public ProceduralSearch(ProceduralGraph graph, Node start, Node goal, int maxExpanded) {
+        if (maxExpanded < 1) {
+            throw new IllegalArgumentException("maxExpanded must be positive");
+        }
+        this.graph = graph;
+        this.start = start;
+        this.goal = goal;
+        this.maxExpanded = maxExpanded;
+        this.teleports = graph.getTeleportPercent() > 0;
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return The cells from start to goal, or null if no path was found within the
+     *         expansion limit.
+     */
+    public List<Node> search() {
+        nodesSearched = 0;
+        limitReached = false;
+        if (graph.isBlocked(start.x, start.y) || graph.isBlocked(goal.x, goal.y)) {
+            release();
+            return null;
+        }
+        allocate(INITIAL_CAPACITY);
+        goalDistance = teleportDistanceOf(goal.x, goal.y);
+        long goalKey = pack(goal.x, goal.y);
+        int first = idOf(pack(start.x, start.y));
+        g[first] = 0;
+        open.insert(first, heuristic(start.x, start.y, teleportDistanceOf(start.x, start.y)));
+
+        List<Node> path = null;
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if (cells[current] == goalKey) {
+                path = pathTo(current);
+                break;
+            }
+            if (nodesSearched == maxExpanded) {
+                limitReached = true;
+                break;
+            }
+            nodesSearched++;
+            closed[current] = true;
+            expand(current);
+        }
+        release();
+        return path;
+    }
+
+    /**
+     * Relaxes the edges of a cell in the order up, right, down, left, then the teleportation
+     * destination, like Graph.forEachNeighbor(). Steps off the int coordinate range are skipped.
+     */
+    private void expand(int current) {
+        int x = (int) (cells[current] >> 32);
+        int y = (int) cells[current];
+        double nextG = g[current] + 1;
+        if (y != Integer.MAX_VALUE) {
+            relax(current, x, y + 1, nextG);
+        }
+        if (x != Integer.MAX_VALUE) {
+            relax(current, x + 1, y, nextG);
+        }
+        if (y != Integer.MIN_VALUE) {
+            relax(current, x, y - 1, nextG);
+        }
+        if (x != Integer.MIN_VALUE) {
+            relax(current, x - 1, y, nextG);
+        }
+        int target = chunkOf(x, y).teleportTarget(ProceduralGraph.localIndex(x, y));
+        if (target >= 0) {
+            // Teleport endpoints are never blocked, and both lie in the same chunk
+            relax(current, (x & ~ProceduralGraph.CHUNK_MASK) | (target & ProceduralGraph.CHUNK_MASK),
+                    (y & ~ProceduralGraph.CHUNK_MASK) | (target >>> ProceduralGraph.CHUNK_SHIFT), nextG);
+        }
+    }
+
+    private void relax(int from, int x, int y, double tentativeG) {
+        ProceduralGraph.Chunk neighborChunk = chunkOf(x, y);
+        int local = ProceduralGraph.localIndex(x, y);
+        if (neighborChunk.isBlocked(local)) {
+            return;
+        }
+        int id = idOf(pack(x, y));
+        if (closed[id] || tentativeG >= g[id]) {
+            return;
+        }
+        g[id] = tentativeG;
+        parent[id] = from;
+        open.insertOrDecrease(id, tentativeG + heuristic(x, y, neighborChunk.teleportDistance(local)));
+    }
+
+    /**
+     * Lower bound on the cost from a cell to the goal, see the class comment.
+     */
+    private double heuristic(int x, int y, int teleportDistance) {
+        int shift = ProceduralGraph.CHUNK_SHIFT;
+        long borders = Math.abs((long) (x >> shift) - (goal.x >> shift))
+                + Math.abs((long) (y >> shift) - (goal.y >> shift));
+        long manhattan = Math.abs((long) x - goal.x) + Math.abs((long) y - goal.y);
+        if (!teleports) {
+            return manhattan;
+        }
+        return Math.max(borders, Math.min(manhattan, teleportDistance + 1 + goalDistance));
+    }
+
+    private int teleportDistanceOf(int x, int y) {
+        return chunkOf(x, y).teleportDistance(ProceduralGraph.localIndex(x, y));
+    }
+
+    private ProceduralGraph.Chunk chunkOf(int x, int y) {
+        int cx = x >> ProceduralGraph.CHUNK_SHIFT;
+        int cy = y >> ProceduralGraph.CHUNK_SHIFT;
+        if (chunk == null || cx != chunkX || cy != chunkY) {
+            Long key = pack(cx, cy);
+            chunk = chunks.get(key);
+            if (chunk == null) {
+                chunk = graph.chunk(cx, cy);
+                chunks.put(key, chunk);
+            }
+            chunkX = cx;
+            chunkY = cy;
+        }
+        return chunk;
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    /**
+     * Gets the id of a cell, handing out the next one if the cell is new.
+     */
+    private int idOf(long key) {
+        int mask = tableKeys.length - 1;
+        int slot = slotOf(key, mask);
+        while (tableIds[slot] != 0) {
+            if (tableKeys[slot] == key) {
+                return tableIds[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == cells.length) {
+            grow();
+            return idOf(key);
+        }
+        int id = size++;
+        tableKeys[slot] = key;
+        tableIds[slot] = id + 1;
+        cells[id] = key;
+        g[id] = Double.POSITIVE_INFINITY;
+        parent[id] = -1;
+        return id;
+    }
+
+    private static int slotOf(long key, int mask) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        tableKeys = new long[2 * capacity]; // Load factor at most 1/2
+        tableIds = new int[2 * capacity];
+        cells = new long[capacity];
+        g = new double[capacity];
+        parent = new int[capacity];
+        closed = new boolean[capacity];
+        size = 0;
+        open = new IndexedMinHeap(capacity);
+        chunks = new HashMap<>();
+    }
+
+    /**
+     * Doubles the per-id arrays and rehashes the table.
+     */
+    private void grow() {
+        int capacity = 2 * cells.length;
+        cells = Arrays.copyOf(cells, capacity);
+        g = Arrays.copyOf(g, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        closed = Arrays.copyOf(closed, capacity);
+        open.ensureCapacity(capacity);
+        tableKeys = new long[2 * capacity];
+        tableIds = new int[2 * capacity];
+        int mask = tableKeys.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = slotOf(cells[id], mask);
+            while (tableIds[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            tableKeys[slot] = cells[id];
+            tableIds[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Drops the search arrays, keeping only the counters, so a finished search holds no memory
+     * proportional to what it explored.
+     */
+    private void release() {
+        cellsDiscovered = size;
+        size = 0;
+        tableKeys = null;
+        tableIds = null;
+        cells = null;
+        g = null;
+        parent = null;
+        closed = null;
+        open = null;
+        chunks = null;
+        chunk = null;
+    }
+
+    private List<Node> pathTo(int id) {
+        List<Node> path = new ArrayList<>();
+        for (int current = id; current >= 0; current = parent[current]) {
+            path.add(new Node((int) (cells[current] >> 32), (int) cells[current]));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the number of nodes expanded during the last search.
+     *
+     * @return The number of nodes searched.
+     */
+    public int getNodesSearched() {
+        return nodesSearched;
+    }
+
+    /**
+     * Returns the number of cells the last search reached, expanded or not; its memory use was
+     * proportional to this.
+     *
+     * @return The number of cells discovered.
+     */
+    public int getCellsDiscovered() {
+        return cellsDiscovered;
+    }
+
+    /**
+     * Checks if the last search gave up at the expansion limit rather than finding the goal or
+     * running out of cells.
+     *
+     * @return True if the expansion limit was reached, false otherwise.
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+}
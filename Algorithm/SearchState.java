@@ -0,0 +1,203 @@
+package Algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Flat, primitive-array search state for grid searches, keyed by cell index (y * width + x).
+ * This replaces the g/h/f/parent fields on Node so a search does not allocate per expanded node.
+ * Entries are tagged with a generation counter, so reset() is O(1) instead of clearing every array.
+ * One int per cell holds the generation together with the visited and closed flags.
+ */
+public class SearchState {
+    private final int cellCount;
+    private final double[] g; // Cost from the start to each cell
+    private final double[] f; // g + h for each cell
+    private final int[] parent; // Parent cell index on the best known path, or -1
+    private final int[] stamp; // Generation << 2 | CLOSED | VISITED, for the flags set in that generation
+    private final IndexedMinHeap openSet; // Open set reused across searches
+    private BucketQueue bucketQueue; // Open set for small integer priorities, created on first use
+    private int generation = 1;
+    private SearchState backwardState; // Second state for bidirectional searches, created on first use
+
+    private static final int VISITED = 1; // g/f/parent were written in the stamped generation
+    private static final int CLOSED = 2; // The cell was closed in the stamped generation
+    private static final int MAX_GENERATION = Integer.MAX_VALUE >>> 2;
+
+    /**
+     * Constructor for SearchState.
+     *
+     * @param cellCount The number of cells in the grid (width * height).
+     */
+    public SearchState(int cellCount) {
+        this.cellCount = cellCount;
+        this.g = new double[cellCount];
+        this.f = new double[cellCount];
+        this.parent = new int[cellCount];
+        this.stamp = new int[cellCount];
+        this.openSet = new IndexedMinHeap(cellCount);
+    }
+
+    /**
+     * Prepares the state for a new search.
+     * Bumps the generation counter so all previous values become stale; the arrays
+     * are only cleared when the counter wraps around.
+     */
+    public void reset() {
+        openSet.clear();
+        if (bucketQueue != null) {
+            bucketQueue.clear();
+        }
+        if (++generation == MAX_GENERATION) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Gets the number of cells this state can hold.
+     *
+     * @return The number of cells.
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Gets the open set shared by searches using this state.
+     *
+     * @return The open set.
+     */
+    public IndexedMinHeap getOpenSet() {
+        return openSet;
+    }
+
+    /**
+     * Gets the bucketed open set, for searches whose priorities are small integers.
+     * It is created on first use and reused afterwards, like the heap.
+     *
+     * @param spread The expected difference between the largest and smallest queued priority.
+     * @return The bucket queue.
+     */
+    public BucketQueue getBucketQueue(int spread) {
+        if (bucketQueue == null) {
+            bucketQueue = new BucketQueue(cellCount, spread);
+        }
+        return bucketQueue;
+    }
+
+    /**
+     * Gets a second search state of the same size, owned together with this one.
+     * Bidirectional searches use it for the backward direction, so whoever owns
+     * (or pools) this state also owns its partner.
+     *
+     * @return The backward search state.
+     */
+    public SearchState getBackwardState() {
+        if (backwardState == null) {
+            backwardState = new SearchState(cellCount);
+        }
+        return backwardState;
+    }
+
+    /**
+     * Checks if a cell has been reached during the current search.
+     *
+     * @param cell The cell index.
+     * @return True if the cell has a g value in this search, false otherwise.
+     */
+    public boolean isVisited(int cell) {
+        int current = stamp[cell];
+        return current >>> 2 == generation && (current & VISITED) != 0;
+    }
+
+    /**
+     * Records a (better) path to a cell.
+     *
+     * @param cell   The cell index.
+     * @param g      The cost from the start to the cell.
+     * @param f      The estimated total cost through the cell.
+     * @param parent The previous cell on the path, or -1 for the start.
+     */
+    public void visit(int cell, double g, double f, int parent) {
+        this.g[cell] = g;
+        this.f[cell] = f;
+        this.parent[cell] = parent;
+        mark(cell, VISITED);
+    }
+
+    /**
+     * Gets the cost from the start to a cell.
+     *
+     * @param cell The cell index.
+     * @return The g value, or positive infinity if the cell has not been reached.
+     */
+    public double getG(int cell) {
+        return isVisited(cell) ? g[cell] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the estimated total cost through a cell.
+     *
+     * @param cell The cell index.
+     * @return The f value, or positive infinity if the cell has not been reached.
+     */
+    public double getF(int cell) {
+        return isVisited(cell) ? f[cell] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the parent of a cell on the best known path.
+     *
+     * @param cell The cell index.
+     * @return The parent cell index, or -1 if there is none.
+     */
+    public int getParent(int cell) {
+        return isVisited(cell) ? parent[cell] : -1;
+    }
+
+    /**
+     * Marks a cell as fully explored.
+     *
+     * @param cell The cell index.
+     */
+    public void close(int cell) {
+        mark(cell, CLOSED);
+    }
+
+    /**
+     * Checks if a cell has been fully explored in the current search.
+     *
+     * @param cell The cell index.
+     * @return True if the cell is closed, false otherwise.
+     */
+    public boolean isClosed(int cell) {
+        int current = stamp[cell];
+        return current >>> 2 == generation && (current & CLOSED) != 0;
+    }
+
+    /**
+     * Sets a flag of a cell for the current generation, dropping flags from older ones.
+     */
+    private void mark(int cell, int flag) {
+        int current = stamp[cell];
+        stamp[cell] = (current >>> 2 == generation ? current : generation << 2) | flag;
+    }
+
+    /**
+     * Follows the parent links from a cell back to the start.
+     *
+     * @param cell The last cell of the path.
+     * @return The cell indices from the start to the given cell.
+     */
+    public int[] pathTo(int cell) {
+        int length = 0;
+        for (int c = cell; c != -1; c = parent[c]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int c = cell, i = length - 1; c != -1; c = parent[c]) {
+            path[i--] = c;
+        }
+        return path;
+    }
+}
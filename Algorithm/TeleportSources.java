@@ -0,0 +1,115 @@
+package Algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Teleportation links indexed by destination cell, so the cells that teleport into a cell
+ * can be enumerated. Incremental planners need these incoming edges to repair the cells in
+ * front of a change, and the transposed CompiledGraph follows them as its teleportation edges.
+ * Only destinations have an entry, so the index grows with the number of links, not cells.
+ * Blocked cells are not taken into account; only the links are indexed.
+ * Get it from Graph.getTeleportSources(), which builds it once per set of links.
+ */
+final class TeleportSources {
+    private final CellMap ranges; // Destination cell -> index of its range in offsets
+    private final int[] offsets; // offsets[r] .. offsets[r + 1] index the sources of range r
+    private final int[] sources; // Source cells, grouped by destination, in cell order
+
+    private TeleportSources(CellMap ranges, int[] offsets, int[] sources) {
+        this.ranges = ranges;
+        this.offsets = offsets;
+        this.sources = sources;
+    }
+
+    /**
+     * Indexes teleportation links by destination.
+     *
+     * @param links The destination of each source cell.
+     * @return The index.
+     */
+    static TeleportSources build(CellMap links) {
+        CellMap ranges = new CellMap(links.size());
+        int[] offsets = new int[links.size() + 1];
+        int rangeCount = 0;
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.keyAt(slot) >= 0) {
+                int target = links.valueAt(slot);
+                int range = ranges.get(target);
+                if (range < 0) {
+                    range = rangeCount++;
+                    ranges.put(target, range);
+                }
+                offsets[range + 1]++;
+            }
+        }
+        for (int range = 0; range < rangeCount; range++) {
+            offsets[range + 1] += offsets[range];
+        }
+        int[] sources = new int[links.size()];
+        int[] next = Arrays.copyOf(offsets, rangeCount);
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            int cell = links.keyAt(slot);
+            if (cell >= 0) {
+                sources[next[ranges.get(links.valueAt(slot))]++] = cell;
+            }
+        }
+        for (int range = 0; range < rangeCount; range++) {
+            Arrays.sort(sources, offsets[range], offsets[range + 1]);
+        }
+        return new TeleportSources(ranges, Arrays.copyOf(offsets, rangeCount + 1), sources);
+    }
+
+    /**
+     * Gets the first position of a cell's sources.
+     *
+     * @param cell The destination cell index.
+     * @return The position of its first source.
+     */
+    int start(int cell) {
+        int range = ranges.get(cell);
+        return range < 0 ? 0 : offsets[range];
+    }
+
+    /**
+     * Gets the position after a cell's last source.
+     *
+     * @param cell The destination cell index.
+     * @return The end position, exclusive.
+     */
+    int end(int cell) {
+        int range = ranges.get(cell);
+        return range < 0 ? 0 : offsets[range + 1];
+    }
+
+    /**
+     * Gets the source cell at a position.
+     *
+     * @param i The position, between start(cell) and end(cell).
+     * @return The cell that teleports into the destination.
+     */
+    int source(int i) {
+        return sources[i];
+    }
+
+    /**
+     * Gets the most sources any destination has.
+     *
+     * @return The largest number of links into one cell, 0 if there are none.
+     */
+    int getMaxSources() {
+        int most = 0;
+        for (int range = 0; range + 1 < offsets.length; range++) {
+            most = Math.max(most, offsets[range + 1] - offsets[range]);
+        }
+        return most;
+    }
+
+    /**
+     * Gets the approximate memory used by the index.
+     *
+     * @return The size in bytes.
+     */
+    long getMemoryFootprint() {
+        return ranges.getMemoryFootprint() + 4L * offsets.length + 4L * sources.length;
+    }
+}
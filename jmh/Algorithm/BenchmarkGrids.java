@@ -0,0 +1,51 @@
+package Algorithm;
+
+import java.util.Random;
+
+/**
+ * Shared setup for the benchmarks: builds a graph from a composite seed.
+ */
+final class BenchmarkGrids {
+
+    private BenchmarkGrids() {
+    }
+
+    /**
+     * Generates the graph described by a composite seed.
+     * If the encoded start or goal is blocked, the generator's own start/goal is kept
+     * so every benchmark measures a real search.
+     *
+     * @param compositeSeed The composite seed string.
+     * @param wrapAround    Whether wrap-around edges are enabled.
+     * @return The generated graph.
+     */
+    static Graph create(String compositeSeed, boolean wrapAround) {
+        CompositeSeed seed = CompositeSeed.parse(compositeSeed);
+        Graph graph = new Graph(seed.getWidth(), seed.getHeight());
+        GridGenerator.generate(graph, seed.getBlockedPercent(), seed.getTeleportPercent(), seed.getSeed(),
+                seed.getGeneratorVersion());
+        Node start = seed.getStart();
+        Node goal = seed.getGoal();
+        if (!graph.isBlocked(start.x, start.y) && !graph.isBlocked(goal.x, goal.y)) {
+            graph.setStart(start);
+            graph.setGoal(goal);
+        }
+        graph.setWrapAroundEnabled(wrapAround);
+        return graph;
+    }
+
+    /**
+     * Gives every cell a cost from 1 to 4, the "terrain" setting of the benchmarks.
+     *
+     * @param graph The graph to change.
+     * @param seed  The seed of the random costs.
+     */
+    static void addTerrainCosts(Graph graph, long seed) {
+        Random random = new Random(seed);
+        for (int y = 0; y < graph.getHeight(); y++) {
+            for (int x = 0; x < graph.getWidth(); x++) {
+                graph.setCellCost(x, y, 1 + random.nextInt(4));
+            }
+        }
+    }
+}
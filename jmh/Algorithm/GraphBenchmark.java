@@ -0,0 +1,102 @@
+package Algorithm;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark for grid generation and neighbor enumeration on Graph.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    /**
+     * Composite seed: width-height-blockedPercent-teleportPercent-seed-startX-startY-endX-endY
+     */
+    @Param({ "100-100-0.2-0.05-42-0-0-99-99", "500-500-0.2-0.05-42-0-0-499-499",
+            "1000-1000-0.2-0.05-42-0-0-999-999" })
+    public String compositeSeed;
+
+    @Param({ "false", "true" })
+    public boolean wrapAround;
+
+    private CompositeSeed seed;
+    private Graph graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        seed = CompositeSeed.parse(compositeSeed);
+        graph = BenchmarkGrids.create(compositeSeed, wrapAround);
+    }
+
+    @Benchmark
+    public Graph generateRandomGrid() {
+        Graph generated = new Graph(seed.getWidth(), seed.getHeight());
+        generated.generateRandomGrid(seed.getWidth(), seed.getHeight(), seed.getBlockedPercent(),
+                seed.getTeleportPercent(), seed.getSeed());
+        return generated;
+    }
+
+    /**
+     * Generates the same grid size with the chunked parallel generator.
+     */
+    @Benchmark
+    public Graph generateChunkedGrid() {
+        Graph generated = new Graph(seed.getWidth(), seed.getHeight());
+        GridGenerator.generate(generated, seed.getBlockedPercent(), seed.getTeleportPercent(), seed.getSeed(),
+                GridGenerator.CHUNKED);
+        return generated;
+    }
+
+    /**
+     * Calls getNeighbors() once for every cell, as the old search loop did per expansion.
+     */
+    @Benchmark
+    public void getNeighbors(Blackhole blackhole) {
+        for (int y = 0; y < graph.getHeight(); y++) {
+            for (int x = 0; x < graph.getWidth(); x++) {
+                List<Node> neighbors = graph.getNeighbors(new Node(x, y));
+                blackhole.consume(neighbors);
+            }
+        }
+    }
+
+    /**
+     * Visits the neighbors of every cell through the allocation-free visitor API.
+     */
+    @Benchmark
+    public void forEachNeighbor(Blackhole blackhole) {
+        NeighborVisitor visitor = (neighbor, cost) -> blackhole.consume(neighbor);
+        for (int cell = 0; cell < graph.getWidth() * graph.getHeight(); cell++) {
+            graph.forEachNeighbor(cell, visitor);
+        }
+    }
+
+    @Benchmark
+    public int getEdgeCount() {
+        return graph.getEdgeCount();
+    }
+
+    @Benchmark
+    public CompiledGraph compile() {
+        return CompiledGraph.compile(graph);
+    }
+}
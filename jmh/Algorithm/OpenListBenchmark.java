@@ -0,0 +1,77 @@
+package Algorithm;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the binary heap and the bucket queue as the open list of A* and
+ * Dijkstra, on uniform grids and on terrain with small integer cell costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenListBenchmark {
+
+    /**
+     * Composite seed: width-height-blockedPercent-teleportPercent-seed-startX-startY-endX-endY
+     */
+    @Param({ "500-500-0.2-0.05-42-0-0-499-499", "1000-1000-0.2-0.05-42-0-0-999-999" })
+    public String compositeSeed;
+
+    @Param({ "A* Search", "Dijkstra's Algorithm" })
+    public String algorithm;
+
+    @Param({ "heap", "buckets" })
+    public String openList;
+
+    /**
+     * "uniform" keeps every cell at cost 1, "terrain" gives every cell a cost from 1 to 4.
+     */
+    @Param({ "uniform", "terrain" })
+    public String costs;
+
+    private AStar search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Graph graph = BenchmarkGrids.create(compositeSeed, false);
+        if (costs.equals("terrain")) {
+            BenchmarkGrids.addTerrainCosts(graph, CompositeSeed.parse(compositeSeed).getSeed());
+        }
+        CompiledGraph compiled = graph.compile();
+        boolean dijkstra = algorithm.equals("Dijkstra's Algorithm");
+        boolean buckets = openList.equals("buckets");
+        search = new AStar(compiled, graph.getIndex(graph.getStart().x, graph.getStart().y),
+                graph.getIndex(graph.getGoal().x, graph.getGoal().y), new SearchState(compiled.getCellCount())) {
+            @Override
+            protected double calculateHeuristic(int a, int b) {
+                return dijkstra ? 0 : super.calculateHeuristic(a, b);
+            }
+
+            @Override
+            protected boolean useBucketQueue() {
+                return buckets;
+            }
+        };
+    }
+
+    @Benchmark
+    public int[] search() {
+        return search.searchCells();
+    }
+}
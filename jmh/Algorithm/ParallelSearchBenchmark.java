@@ -0,0 +1,75 @@
+package Algorithm;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing one-to-all distances from the start computed sequentially and with
+ * ParallelSearch on a given number of threads, on uniform grids and on terrain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    /**
+     * Composite seed: width-height-blockedPercent-teleportPercent-seed-startX-startY-endX-endY
+     */
+    @Param({ "2000-2000-0.2-0.0-42-0-0-1999-1999" })
+    public String compositeSeed;
+
+    @Param({ "1", "2", "4" })
+    public int threads;
+
+    /**
+     * "uniform" keeps every cell at cost 1, "terrain" gives every cell a cost from 1 to 4.
+     */
+    @Param({ "uniform", "terrain" })
+    public String costs;
+
+    private CompiledGraph compiled;
+    private ParallelSearch search;
+    private int source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Graph graph = BenchmarkGrids.create(compositeSeed, false);
+        if (costs.equals("terrain")) {
+            BenchmarkGrids.addTerrainCosts(graph, CompositeSeed.parse(compositeSeed).getSeed());
+        }
+        compiled = graph.compile();
+        source = graph.getIndex(graph.getStart().x, graph.getStart().y);
+        search = new ParallelSearch(compiled, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public float[] sequential() {
+        return ParallelSearch.sequentialDistances(compiled, source);
+    }
+
+    @Benchmark
+    public float[] parallel() {
+        return search.distances(source);
+    }
+}
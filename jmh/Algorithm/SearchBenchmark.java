@@ -0,0 +1,55 @@
+package Algorithm;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for a single start-to-goal search with each AlgorithmFactory variant.
+ * The grid is generated once per trial from a composite seed, so only the search is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    /**
+     * Composite seed: width-height-blockedPercent-teleportPercent-seed-startX-startY-endX-endY
+     */
+    @Param({ "100-100-0.2-0.05-42-0-0-99-99", "500-500-0.2-0.05-42-0-0-499-499",
+            "1000-1000-0.2-0.05-42-0-0-999-999" })
+    public String compositeSeed;
+
+    @Param({ "A* Search", "Greedy Best-First Search", "Dijkstra's Algorithm" })
+    public String algorithm;
+
+    @Param({ "false", "true" })
+    public boolean wrapAround;
+
+    private AStar search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Graph graph = BenchmarkGrids.create(compositeSeed, wrapAround);
+        search = AlgorithmFactory.createAlgorithm(algorithm, graph, graph.getStart(), graph.getGoal());
+    }
+
+    @Benchmark
+    public int[] search() {
+        return search.searchCells();
+    }
+}